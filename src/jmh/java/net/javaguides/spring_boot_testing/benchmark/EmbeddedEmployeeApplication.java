@@ -0,0 +1,55 @@
+package net.javaguides.spring_boot_testing.benchmark;
+
+import net.javaguides.spring_boot_testing.SpringBootTestingApplication;
+import net.javaguides.spring_boot_testing.model.Employee;
+import net.javaguides.spring_boot_testing.services.EmployeeService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Boots the real application on an in-memory H2 database in MySQL mode, no Docker or MySQL needed.
+ * The schema comes from the db/migration/h2 Flyway scripts.
+ */
+final class EmbeddedEmployeeApplication {
+
+    private EmbeddedEmployeeApplication() {
+    }
+
+    static ConfigurableApplicationContext start(Map<String, Object> properties) {
+        Map<String, Object> arguments = new HashMap<>(Map.of(
+                "spring.datasource.url", "jdbc:h2:mem:bench-" + System.nanoTime() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+                "spring.datasource.username", "sa",
+                "spring.datasource.password", "",
+                "spring.jpa.properties.hibernate.show_sql", "false",
+                "spring.main.banner-mode", "off",
+                "logging.level.root", "WARN",
+                "server.port", "0"));
+        arguments.putAll(properties);
+        // passed as command line arguments so they win over application.properties
+        String[] args = arguments.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(SpringBootTestingApplication.class).run(args);
+    }
+
+    static void seed(ConfigurableApplicationContext context, int count) {
+        EmployeeService employeeService = context.getBean(EmployeeService.class);
+        List<Employee> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            batch.add(Employee.builder()
+                    .firstName("First" + i)
+                    .lastName("Last" + i)
+                    .email("seed" + i + "@bench.com")
+                    .build());
+            if (batch.size() == 1000 || i == count - 1) {
+                employeeService.saveEmployees(batch);
+                batch = new ArrayList<>();
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package net.javaguides.spring_boot_testing.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.spring_boot_testing.config.BinaryFormatConfig;
+import net.javaguides.spring_boot_testing.model.Employee;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode and decode time of an Employee list per content type. The payload size of each
+ * format is reported as the payloadBytes secondary metric, so it ends up in jmh-result.json.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeSerializationBenchmark {
+
+    private static final TypeReference<List<Employee>> EMPLOYEE_LIST = new TypeReference<>() {
+    };
+
+    @Param({"1", "100", "10000"})
+    private int size;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private List<Employee> employees;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json().build();
+        objectMapper = switch (format) {
+            case "cbor" -> BinaryFormatConfig.cborMapper(jsonMapper);
+            case "smile" -> BinaryFormatConfig.smileMapper(jsonMapper);
+            default -> jsonMapper;
+        };
+        employees = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            employees.add(new Employee(i + 1, "First" + i, "Last" + i, "employee" + i + "@bench.com", i % 5));
+        }
+        payload = objectMapper.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public byte[] serializeEmployees(PayloadSize payloadSize) throws IOException {
+        return objectMapper.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public List<Employee> deserializeEmployees(PayloadSize payloadSize) throws IOException {
+        return objectMapper.readValue(payload, EMPLOYEE_LIST);
+    }
+
+    // EVENTS counters are reported as they are and not per operation, one thread per fork
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class PayloadSize {
+
+        public long payloadBytes;
+
+        @Setup(Level.Iteration)
+        public void setUp(EmployeeSerializationBenchmark benchmark) {
+            payloadBytes = benchmark.payload.length;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package net.javaguides.spring_boot_testing.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguides.spring_boot_testing.event.EmployeeChangedEvent;
+import net.javaguides.spring_boot_testing.model.Employee;
+import net.javaguides.spring_boot_testing.repository.EmployeeRepository;
+import net.javaguides.spring_boot_testing.search.EmployeeNameIndex;
+import net.javaguides.spring_boot_testing.services.EmployeeService;
+import net.javaguides.spring_boot_testing.services.impl.EmployeeServiceImpl;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmployeeServiceBenchmark {
+
+    private static final int EMPLOYEES = 10_000;
+
+    private EmployeeService employeeService;
+    private final AtomicLong emails = new AtomicLong();
+    private String prefixQuery;
+    private String fuzzyQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EmployeeRepository employeeRepository = InMemoryEmployeeRepository.create();
+        EmployeeNameIndex employeeNameIndex = new EmployeeNameIndex();
+        // the in-memory repository never touches the EntityManager, only exportEmployees does
+        employeeService = new EmployeeServiceImpl(employeeRepository, null, new SimpleMeterRegistry(),
+                event -> employeeNameIndex.onEmployeeChanged((EmployeeChangedEvent) event), employeeNameIndex);
+        List<Employee> employees = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < EMPLOYEES; i++) {
+            Employee employee = employee("seed" + i);
+            employee.setFirstName(name(random));
+            employee.setLastName(name(random));
+            employees.add(employee);
+        }
+        employeeService.saveEmployees(employees);
+        String firstName = employees.get(EMPLOYEES / 2).getFirstName();
+        prefixQuery = firstName.substring(0, 3);
+        fuzzyQuery = firstName.charAt(1) + firstName.substring(0, 1) + firstName.substring(2);
+    }
+
+    @Benchmark
+    public Employee saveEmployee() {
+        return employeeService.saveEmployee(employee("bench" + emails.incrementAndGet()));
+    }
+
+    @Benchmark
+    public Optional<Employee> getEmployeeById() {
+        return employeeService.getEmployeeById(EMPLOYEES / 2L);
+    }
+
+    @Benchmark
+    public List<Employee> getEmployeesAfter() {
+        return employeeService.getEmployeesAfter(EMPLOYEES / 2L, 100);
+    }
+
+    @Benchmark
+    public List<Employee> searchEmployeesByPrefix() {
+        return employeeService.searchEmployees(prefixQuery, 10);
+    }
+
+    @Benchmark
+    public List<Employee> searchEmployeesFuzzy() {
+        return employeeService.searchEmployees(fuzzyQuery, 10);
+    }
+
+    @Benchmark
+    public void patchEmployee() {
+        employeeService.patchEmployee(1L, Employee.builder().firstName("Patched").build());
+    }
+
+    private static String name(Random random) {
+        char[] name = new char[5 + random.nextInt(5)];
+        for (int i = 0; i < name.length; i++) {
+            name[i] = (char) ('a' + random.nextInt(26));
+        }
+        name[0] = Character.toUpperCase(name[0]);
+        return new String(name);
+    }
+
+    private static Employee employee(String name) {
+        return Employee.builder()
+                .firstName(name)
+                .lastName("Benchmark")
+                .email(name + "@bench.com")
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+package net.javaguides.spring_boot_testing.benchmark;
+
+import net.javaguides.spring_boot_testing.model.Employee;
+import net.javaguides.spring_boot_testing.repository.EmployeeRepository;
+import org.springframework.data.domain.Limit;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Map backed stand-in for {@link EmployeeRepository} so service benchmarks measure
+ * the service code and not JDBC. Only the methods EmployeeServiceImpl calls are implemented.
+ */
+final class InMemoryEmployeeRepository {
+
+    private final ConcurrentSkipListMap<Long, Employee> employees = new ConcurrentSkipListMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private InMemoryEmployeeRepository() {
+    }
+
+    static EmployeeRepository create() {
+        InMemoryEmployeeRepository store = new InMemoryEmployeeRepository();
+        return (EmployeeRepository) Proxy.newProxyInstance(EmployeeRepository.class.getClassLoader(),
+                new Class<?>[]{EmployeeRepository.class},
+                (proxy, method, args) -> store.invoke(method.getName(), args));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object invoke(String method, Object[] args) {
+        switch (method) {
+            case "save":
+            case "saveAndFlush":
+                return save((Employee) args[0]);
+            case "saveAll":
+            case "saveAllAndFlush":
+                List<Employee> saved = new ArrayList<>();
+                for (Employee employee : (Iterable<Employee>) args[0]) {
+                    saved.add(save(employee));
+                }
+                return saved;
+            case "findById":
+            case "findCurrentById":
+                return Optional.ofNullable(employees.get((Long) args[0]));
+            case "existsById":
+                return employees.containsKey((Long) args[0]);
+            case "findByIdGreaterThanOrderByIdAsc":
+                return employees.tailMap((Long) args[0], false).values().stream()
+                        .limit(((Limit) args[1]).max())
+                        .toList();
+            case "findExistingEmails":
+                Collection<String> emails = (Collection<String>) args[0];
+                return employees.values().stream()
+                        .map(Employee::getEmail)
+                        .filter(emails::contains)
+                        .toList();
+            case "updateIfVersionMatches":
+                return updateIfVersionMatches((Long) args[0], (Long) args[1], (String) args[2], (String) args[3], (String) args[4]);
+            case "patchEmployee":
+                return patch((Long) args[0], (Employee) args[1]);
+            case "deleteEmployee":
+                return employees.remove((Long) args[0]) != null ? 1 : 0;
+            case "lockExistingIds":
+                return ((Collection<Long>) args[0]).stream()
+                        .filter(employees::containsKey)
+                        .toList();
+            case "deleteEmployees":
+                int deleted = 0;
+                for (Long id : (Collection<Long>) args[0]) {
+                    deleted += employees.remove(id) != null ? 1 : 0;
+                }
+                return deleted;
+            case "count":
+                return (long) employees.size();
+            case "hashCode":
+                return System.identityHashCode(this);
+            case "toString":
+                return "InMemoryEmployeeRepository" + employees.keySet();
+            default:
+                throw new UnsupportedOperationException(method);
+        }
+    }
+
+    private Employee save(Employee employee) {
+        if (employee.getId() == 0) {
+            employee.setId(sequence.incrementAndGet());
+        }
+        employees.put(employee.getId(), employee);
+        return employee;
+    }
+
+    private int updateIfVersionMatches(long id, long version, String firstName, String lastName, String email) {
+        Employee current = employees.get(id);
+        if (current == null || current.getVersion() != version) {
+            return 0;
+        }
+        employees.put(id, new Employee(id, firstName, lastName, email, version + 1));
+        return 1;
+    }
+
+    private int patch(long id, Employee changes) {
+        Employee current = employees.get(id);
+        if (current == null) {
+            return 0;
+        }
+        employees.put(id, new Employee(id,
+                changes.getFirstName() != null ? changes.getFirstName() : current.getFirstName(),
+                changes.getLastName() != null ? changes.getLastName() : current.getLastName(),
+                changes.getEmail() != null ? changes.getEmail() : current.getEmail(),
+                current.getVersion() + 1));
+        return 1;
+    }
+}
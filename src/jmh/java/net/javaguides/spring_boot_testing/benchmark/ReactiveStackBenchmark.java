@@ -0,0 +1,128 @@
+package net.javaguides.spring_boot_testing.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Servlet/JPA (Tomcat, JDBC) vs reactive (Netty, R2DBC) stack over real HTTP. Each operation is a burst of
+ * {@code connections} requests in flight at once, so the score is the time to drain one burst and
+ * connections / score is the throughput. Both stacks read the same pre-seeded in-memory H2 database.
+ * 10k connections needs ulimit -n above 20000 for client and server sockets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ReactiveStackBenchmark {
+
+    private static final int EMPLOYEES = 10_000;
+
+    @Param({"servlet", "reactive"})
+    private String stack;
+
+    @Param("10000")
+    private int connections;
+
+    private Connection keepAlive;
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String database = "bench-" + System.nanoTime();
+        // the open connection keeps the in-memory database alive for both the JDBC and the R2DBC driver
+        String settings = "MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+        String url = "jdbc:h2:mem:" + database + ";" + settings;
+        keepAlive = DriverManager.getConnection(url, "sa", "");
+        Flyway.configure().dataSource(url, "sa", "").locations("classpath:db/migration/h2").load().migrate();
+        seed(keepAlive);
+
+        if (stack.equals("reactive")) {
+            context = EmbeddedEmployeeApplication.start(Map.of(
+                    "spring.profiles.active", "reactive",
+                    "spring.r2dbc.url", "r2dbc:h2:mem:///" + database + "?options=" + settings,
+                    "spring.r2dbc.username", "sa",
+                    "spring.r2dbc.password", "",
+                    "spring.r2dbc.pool.max-size", 20,
+                    "spring.flyway.url", url,
+                    "spring.flyway.user", "sa",
+                    "spring.flyway.password", ""));
+        } else {
+            context = EmbeddedEmployeeApplication.start(Map.of(
+                    "spring.datasource.url", url,
+                    "spring.datasource.hikari.maximum-pool-size", 20,
+                    // the reactive stack has no cache, the servlet stack must read H2 on every request as well
+                    "spring.cache.type", "none",
+                    "spring.jpa.properties.hibernate.cache.use_second_level_cache", false,
+                    "spring.jpa.properties.hibernate.cache.use_query_cache", false,
+                    "server.tomcat.max-connections", connections * 2,
+                    "server.tomcat.accept-count", connections));
+        }
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/employees";
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        context.close();
+        keepAlive.close();
+    }
+
+    @Benchmark
+    public int getEmployeeById() {
+        return burst(() -> baseUrl + "/" + ThreadLocalRandom.current().nextLong(1, EMPLOYEES));
+    }
+
+    @Benchmark
+    public int getEmployeesPage() {
+        return burst(() -> baseUrl + "?limit=50&after=" + ThreadLocalRandom.current().nextLong(0, EMPLOYEES));
+    }
+
+    private int burst(Supplier<String> url) {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[connections];
+        for (int i = 0; i < connections; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url.get())).GET().build();
+            responses[i] = httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+        }
+        CompletableFuture.allOf(responses).join();
+        return responses.length;
+    }
+
+    private static void seed(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("alter sequence employees_seq restart with " + (EMPLOYEES + 1));
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into employees (id, email, first_name, last_name, version) values (?, ?, ?, ?, 0)")) {
+            for (int i = 1; i <= EMPLOYEES; i++) {
+                insert.setLong(1, i);
+                insert.setString(2, "seed" + i + "@bench.com");
+                insert.setString(3, "First" + i);
+                insert.setString(4, "Last" + i);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package net.javaguides.spring_boot_testing.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Platform thread (default) vs virtual thread request handling over real HTTP, with more
+ * client threads than Tomcat workers or pooled connections. SampleTime reports p50..p99.99.
+ * The virtual param needs a Java 21+ JVM to run the benchmark and fails the trial on older ones.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(400)
+@Fork(1)
+public class ThreadingModeBenchmark {
+
+    private static final int EMPLOYEES = 10_000;
+
+    @Param({"platform", "virtual"})
+    private String threading;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (threading.equals("virtual") && Runtime.version().feature() < 21) {
+            // spring.threads.virtual.enabled would be ignored and the trial would measure platform threads
+            throw new IllegalStateException("Virtual threads need Java 21+, running on " + Runtime.version());
+        }
+        context = EmbeddedEmployeeApplication.start(Map.of(
+                "spring.threads.virtual.enabled", threading.equals("virtual"),
+                "server.tomcat.threads.max", 200,
+                "spring.datasource.hikari.maximum-pool-size", 20,
+                "spring.cache.type", "none"));
+        EmbeddedEmployeeApplication.seed(context, EMPLOYEES);
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port + "/api/employees";
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getEmployeeById() throws IOException, InterruptedException {
+        long id = ThreadLocalRandom.current().nextLong(1, EMPLOYEES);
+        return send(baseUrl + "/" + id);
+    }
+
+    @Benchmark
+    public int getEmployeesPage() throws IOException, InterruptedException {
+        long after = ThreadLocalRandom.current().nextLong(0, EMPLOYEES);
+        return send(baseUrl + "?limit=50&after=" + after);
+    }
+
+    private int send(String url) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).GET().build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
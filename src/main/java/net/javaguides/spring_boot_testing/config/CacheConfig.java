@@ -0,0 +1,51 @@
+package net.javaguides.spring_boot_testing.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheOperationInvocationContext;
+import org.springframework.cache.interceptor.CacheResolver;
+import org.springframework.cache.interceptor.SimpleCacheResolver;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// cache advice wraps the transaction advice so evictions happen after commit. The advice sees the
+// caches through InvalidationGuardedCache, so a load that raced an evict does not put the old row back.
+// The CacheManager itself is left undecorated for the caches endpoint and the cache metrics.
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig implements CachingConfigurer {
+
+    public static final String EMPLOYEES_CACHE = "employees";
+
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final Duration invalidationRetention;
+
+    public CacheConfig(ObjectProvider<CacheManager> cacheManager,
+                       @Value("${employees.cache.invalidation-retention:1m}") Duration invalidationRetention) {
+        this.cacheManager = cacheManager;
+        this.invalidationRetention = invalidationRetention;
+    }
+
+    @Override
+    public CacheResolver cacheResolver() {
+        Map<String, Cache> guardedCaches = new ConcurrentHashMap<>();
+        return new SimpleCacheResolver(cacheManager.getObject()) {
+            @Override
+            public Collection<? extends Cache> resolveCaches(CacheOperationInvocationContext<?> context) {
+                return super.resolveCaches(context).stream()
+                        .map(cache -> guardedCaches.computeIfAbsent(cache.getName(),
+                                name -> new InvalidationGuardedCache(cache, invalidationRetention)))
+                        .toList();
+            }
+        };
+    }
+}
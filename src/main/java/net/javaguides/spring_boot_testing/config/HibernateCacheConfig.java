@@ -0,0 +1,69 @@
+package net.javaguides.spring_boot_testing.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+// bounded Caffeine regions for the Hibernate second-level and query caches, sized by employees.hibernate-cache.*
+@Configuration
+@Profile("!reactive")
+public class HibernateCacheConfig {
+
+    public static final String EMPLOYEE_REGION = "employee";
+    public static final String EMPLOYEE_QUERY_REGION = "employee-queries";
+
+    private static final List<String> DATA_REGIONS = List.of(EMPLOYEE_REGION, EMPLOYEE_QUERY_REGION,
+            RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+
+    // one manager per application context, the provider's default manager would be shared by every context in the JVM
+    @Bean
+    public CacheManager hibernateCacheManager(@Value("${employees.hibernate-cache.maximum-size:10000}") long maximumSize,
+                                              @Value("${employees.hibernate-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+        CaffeineConfiguration<Object, Object> dataRegion = new CaffeineConfiguration<>();
+        dataRegion.setMaximumSize(OptionalLong.of(maximumSize));
+        dataRegion.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+        for (String region : DATA_REGIONS) {
+            cacheManager.createCache(region, dataRegion);
+        }
+        // update timestamps must never be evicted or a cached query could outlive the write that invalidated it
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    // hits, misses and puts per region come from hibernate.generate_statistics, this adds the entry counts
+    @Bean
+    public MeterBinder hibernateCacheRegionSizes(CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (String region : hibernateCacheManager.getCacheNames()) {
+                com.github.benmanes.caffeine.cache.Cache<?, ?> cache = hibernateCacheManager.getCache(region)
+                        .unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+                Gauge.builder("hibernate.cache.region.size", cache, com.github.benmanes.caffeine.cache.Cache::estimatedSize)
+                        .tag("region", region)
+                        .register(registry);
+            }
+        };
+    }
+}
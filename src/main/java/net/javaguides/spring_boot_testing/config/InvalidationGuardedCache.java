@@ -0,0 +1,120 @@
+package net.javaguides.spring_boot_testing.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Drops a read-through put when the key was evicted or the cache cleared after the miss that
+ * started the load. A reader that loaded the row before a write committed can otherwise put the
+ * old row back after the write's evict, where it would stay until expireAfterWrite.
+ * Evictions are remembered for {@code invalidationRetention}, a slower load can still put stale data.
+ */
+public class InvalidationGuardedCache implements Cache {
+
+    private record PendingLoad(Object key, long startedAt) {
+    }
+
+    private final Cache target;
+    private final AtomicLong invalidations = new AtomicLong();
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Long> lastInvalidation;
+    private volatile long lastClear;
+    // @Cacheable looks the key up and puts the loaded value on the same thread, one load at a time
+    private final ThreadLocal<PendingLoad> pendingLoad = new ThreadLocal<>();
+
+    public InvalidationGuardedCache(Cache target, Duration invalidationRetention) {
+        this.target = target;
+        this.lastInvalidation = Caffeine.newBuilder()
+                .expireAfterWrite(invalidationRetention)
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = target.get(key);
+        if (value == null) {
+            pendingLoad.set(new PendingLoad(key, invalidations.get()));
+        }
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return target.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return target.get(key, valueLoader);
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return target.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return target.retrieve(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        PendingLoad load = pendingLoad.get();
+        pendingLoad.remove();
+        if (load != null && load.key().equals(key) && invalidatedSince(key, load.startedAt())) {
+            return;
+        }
+        target.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return target.putIfAbsent(key, value);
+    }
+
+    // the counter moves before the entry goes, so a load that missed afterwards is never dropped
+    @Override
+    public void evict(Object key) {
+        lastInvalidation.put(key, invalidations.incrementAndGet());
+        target.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        lastInvalidation.put(key, invalidations.incrementAndGet());
+        return target.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        lastClear = invalidations.incrementAndGet();
+        target.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        lastClear = invalidations.incrementAndGet();
+        return target.invalidate();
+    }
+
+    private boolean invalidatedSince(Object key, long startedAt) {
+        Long invalidatedAt = lastInvalidation.getIfPresent(key);
+        return lastClear > startedAt || (invalidatedAt != null && invalidatedAt > startedAt);
+    }
+}
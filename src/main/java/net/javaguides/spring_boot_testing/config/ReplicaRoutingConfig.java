@@ -0,0 +1,98 @@
+package net.javaguides.spring_boot_testing.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Active with employees.datasource.routing.enabled=true. The primary pool is configured by
+ * spring.datasource.* and spring.datasource.hikari.*, every employees.datasource.routing.replicas.&lt;name&gt;.*
+ * entry is a Hikari pool of its own and falls back to the primary credentials.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "employees.datasource.routing.enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    public static final String CLIENT_HEADER = "X-Client-Id";
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties, Environment environment,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        Binder binder = Binder.get(environment);
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (primary.getPoolName() == null) {
+            primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        }
+        meterRegistry.ifAvailable(registry -> primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        binder.bind("employees.datasource.routing.replicas", Bindable.mapOf(String.class, HikariConfig.class))
+                .orElse(Map.of())
+                .forEach((name, replica) -> {
+                    if (replica.getPoolName() == null) {
+                        replica.setPoolName(name);
+                    }
+                    if (replica.getUsername() == null) {
+                        replica.setUsername(primary.getUsername());
+                        replica.setPassword(primary.getPassword());
+                    }
+                    meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+                    replicas.put(name, new HikariDataSource(replica));
+                });
+
+        return new ReplicaRoutingDataSource(primary, replicas,
+                binder.bind("employees.datasource.routing.replica-selection", ReplicaRoutingDataSource.ReplicaSelection.class)
+                        .orElse(ReplicaRoutingDataSource.ReplicaSelection.ROUND_ROBIN),
+                binder.bind("employees.datasource.routing.read-your-writes-window", Duration.class)
+                        .orElse(Duration.ofSeconds(5)));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    // X-Client-Id identifies clients behind a shared address, otherwise the remote address is used
+    @Bean
+    public OncePerRequestFilter replicaRoutingClientFilter() {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                String client = request.getHeader(CLIENT_HEADER);
+                ReplicaRoutingDataSource.setClient(client != null ? client : request.getRemoteAddr());
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    ReplicaRoutingDataSource.clearClient();
+                }
+            }
+        };
+    }
+}
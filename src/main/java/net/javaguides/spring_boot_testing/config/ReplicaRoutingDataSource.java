@@ -0,0 +1,124 @@
+package net.javaguides.spring_boot_testing.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections of read-only transactions to one of the replica pools and everything else to
+ * the primary. A client that committed a write within {@code readYourWritesWindow} keeps reading
+ * from the primary so replication lag never hides its own writes. Must sit behind a
+ * LazyConnectionDataSourceProxy, the read-only flag is only known once the transaction has begun.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public enum ReplicaSelection {
+        ROUND_ROBIN, LEAST_CONNECTIONS
+    }
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+
+    private final HikariDataSource primary;
+    private final Map<String, HikariDataSource> replicas;
+    private final List<String> replicaNames;
+    private final ReplicaSelection replicaSelection;
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, Map<String, HikariDataSource> replicas,
+                                    ReplicaSelection replicaSelection, Duration readYourWritesWindow) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.replicaNames = new ArrayList<>(replicas.keySet());
+        this.replicaSelection = replicaSelection;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(readYourWritesWindow)
+                .build();
+        Map<Object, Object> targetDataSources = new HashMap<>(replicas);
+        targetDataSources.put(PRIMARY, primary);
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    // virtual thread mode, see VirtualThreadConfig: the primary and every replica get a fair semaphore
+    // of their own, the Hikari pools themselves are still used for least-connections and close
+    public void limitConnections(int maxConcurrentConnections) {
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        replicas.forEach((name, replica) -> targetDataSources.put(name,
+                ConnectionLimitingDataSource.forPool(replica, maxConcurrentConnections)));
+        DataSource limitedPrimary = ConnectionLimitingDataSource.forPool(primary, maxConcurrentConnections);
+        targetDataSources.put(PRIMARY, limitedPrimary);
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(limitedPrimary);
+        afterPropertiesSet();
+    }
+
+    // identifies the caller for read-your-writes, set per request by ReplicaRoutingConfig
+    public static void setClient(String client) {
+        CLIENT.set(client);
+    }
+
+    public static void clearClient() {
+        CLIENT.remove();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String client = CLIENT.get();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (client != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                recentWriters.put(client, Boolean.TRUE);
+                // the window starts again at commit, that is when replication starts
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        recentWriters.put(client, Boolean.TRUE);
+                    }
+                });
+            }
+            return PRIMARY;
+        }
+        if (replicaNames.isEmpty() || (client != null && recentWriters.getIfPresent(client) != null)) {
+            return PRIMARY;
+        }
+        return selectReplica();
+    }
+
+    private String selectReplica() {
+        if (replicaSelection == ReplicaSelection.LEAST_CONNECTIONS) {
+            return replicaNames.stream()
+                    .min(Comparator.comparingInt(name -> activeConnections(replicas.get(name))))
+                    .orElseThrow();
+        }
+        return replicaNames.get(Math.floorMod(nextReplica.getAndIncrement(), replicaNames.size()));
+    }
+
+    // pools start on their first getConnection
+    private static int activeConnections(HikariDataSource replica) {
+        HikariPoolMXBean pool = replica.getHikariPoolMXBean();
+        return pool != null ? pool.getActiveConnections() : 0;
+    }
+
+    @Override
+    public void close() {
+        replicas.values().forEach(HikariDataSource::close);
+        primary.close();
+    }
+}
@@ -0,0 +1,50 @@
+package net.javaguides.spring_boot_testing.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Active with spring.threads.virtual.enabled=true when running on Java 21+, see application-virtual-threads.properties
+ * and {@link VirtualThreadRequirementConfig} for older JVMs.
+ * Tomcat and the MVC async executor then run on virtual threads; the DataSource is fronted
+ * by a fair semaphore sized to the Hikari pool, or every pool of the {@link ReplicaRoutingDataSource}.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            @Value("${employees.datasource.max-concurrent-connections:0}") int maxConcurrentConnections) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return ConnectionLimitingDataSource.forPool(hikari, maxConcurrentConnections);
+                }
+                // with replica routing each pool gets its own gate, the routing source and the lazy
+                // proxy in front of it stay what they are so they are neither re-typed nor gated twice
+                if (bean instanceof ReplicaRoutingDataSource routing) {
+                    routing.limitConnections(maxConcurrentConnections);
+                    return routing;
+                }
+                if (bean instanceof LazyConnectionDataSourceProxy) {
+                    return bean;
+                }
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)
+                        && maxConcurrentConnections > 0) {
+                    return new ConnectionLimitingDataSource(dataSource, maxConcurrentConnections, 30_000);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package net.javaguides.spring_boot_testing.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnJava;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Before Java 21 Spring Boot ignores spring.threads.virtual.enabled and the application would quietly
+ * run on platform threads with the sizing of application-virtual-threads.properties, so the startup
+ * fails instead.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@ConditionalOnJava(value = JavaVersion.TWENTY_ONE, range = ConditionalOnJava.Range.OLDER_THAN)
+public class VirtualThreadRequirementConfig {
+
+    public VirtualThreadRequirementConfig() {
+        throw new IllegalStateException("spring.threads.virtual.enabled=true needs Java 21+, running on "
+                + Runtime.version());
+    }
+}
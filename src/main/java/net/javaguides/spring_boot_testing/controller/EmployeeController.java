@@ -1,58 +1,263 @@
 package net.javaguides.spring_boot_testing.controller;
 
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import net.javaguides.spring_boot_testing.config.BinaryFormatConfig;
+import net.javaguides.spring_boot_testing.event.EmployeeChange;
+import net.javaguides.spring_boot_testing.event.EmployeeChangeFeed;
+import net.javaguides.spring_boot_testing.ingestion.EmployeeCsvImporter;
+import net.javaguides.spring_boot_testing.ingestion.EmployeeImportReport;
+import net.javaguides.spring_boot_testing.ingestion.EmployeeIngestionQueue;
+import net.javaguides.spring_boot_testing.ingestion.IngestionStatus;
 import net.javaguides.spring_boot_testing.model.Employee;
+import net.javaguides.spring_boot_testing.repository.EmployeeVersion;
 import net.javaguides.spring_boot_testing.services.EmployeeService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/employees")
 public class EmployeeController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final List<MediaType> LIST_FORMATS = List.of(MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_CBOR, BinaryFormatConfig.APPLICATION_SMILE);
+    private static final Map<MediaType, String> LIST_FORMAT_TAGS = Map.of(MediaType.APPLICATION_CBOR, "cbor",
+            BinaryFormatConfig.APPLICATION_SMILE, "smile");
+    private static final List<MediaType> EXPORT_FORMATS = List.of(MediaType.APPLICATION_NDJSON,
+            BinaryFormatConfig.APPLICATION_CBOR_SEQ, BinaryFormatConfig.APPLICATION_SMILE);
 
     private EmployeeService employeeService;
+    private ObjectProvider<EmployeeIngestionQueue> ingestionQueue;
+    private EmployeeListSnapshots listSnapshots;
+    private EmployeeChangeFeed changeFeed;
+    private EmployeeCsvImporter csvImporter;
+    private Map<MediaType, ObjectWriter> employeeWriters;
+    private Map<MediaType, ObjectWriter> fieldsWriters;
 
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, ObjectProvider<EmployeeIngestionQueue> ingestionQueue,
+                              EmployeeListSnapshots listSnapshots, EmployeeChangeFeed changeFeed,
+                              EmployeeCsvImporter csvImporter, ObjectMapper objectMapper) {
         this.employeeService = employeeService;
+        this.ingestionQueue = ingestionQueue;
+        this.listSnapshots = listSnapshots;
+        this.changeFeed = changeFeed;
+        this.csvImporter = csvImporter;
+        Map<MediaType, ObjectMapper> exportMappers = Map.of(
+                MediaType.APPLICATION_NDJSON, objectMapper,
+                BinaryFormatConfig.APPLICATION_CBOR_SEQ, BinaryFormatConfig.cborMapper(objectMapper),
+                BinaryFormatConfig.APPLICATION_SMILE, BinaryFormatConfig.smileMapper(objectMapper));
+        this.employeeWriters = exportWriters(exportMappers, Employee.class);
+        this.fieldsWriters = exportWriters(exportMappers, Map.class);
     }
 
+    // with write-behind ingestion enabled the create is only queued, the Location tracks its status
     @PostMapping
+    public ResponseEntity<?> createEmployee(@RequestBody Employee employee) {
+        EmployeeIngestionQueue queue = ingestionQueue.getIfAvailable();
+        if (queue == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(employeeService.saveEmployee(employee));
+        }
+        IngestionStatus status = queue.submit(employee);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/employees/ingestions/" + status.getTrackingId()))
+                .body(status);
+    }
+
+    @GetMapping("ingestions/{trackingId}")
+    public ResponseEntity<IngestionStatus> getIngestionStatus(@PathVariable("trackingId") String trackingId) {
+        return ingestionQueue.stream()
+                .flatMap(queue -> queue.getStatus(trackingId).stream())
+                .findFirst()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("batch")
     @ResponseStatus(HttpStatus.CREATED)
-    public Employee createEmployee(@RequestBody Employee employee) {
-        return employeeService.saveEmployee(employee);
+    public List<Employee> createEmployees(@RequestBody List<Employee> employees) {
+        return employeeService.saveEmployees(employees);
     }
 
+    // the body is read as it arrives, ?fromRow= resumes an import at the resumeFromRow of its report
+    @PostMapping(value = "import", consumes = "text/csv")
+    public EmployeeImportReport importEmployees(InputStream csv,
+                                                @RequestParam(name = "fromRow", defaultValue = "1") long fromRow) {
+        return csvImporter.importCsv(csv, fromRow);
+    }
+
+    // multipart parts are spooled to disk by the container, see spring.servlet.multipart
+    @PostMapping(value = "import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public EmployeeImportReport importEmployeeFile(@RequestParam("file") MultipartFile file,
+                                                   @RequestParam(name = "fromRow", defaultValue = "1") long fromRow) throws IOException {
+        try (InputStream csv = file.getInputStream()) {
+            return csvImporter.importCsv(csv, fromRow);
+        }
+    }
+
+    // JSON pages come precompressed from EmployeeListSnapshots, CBOR and Smile are serialized per request.
+    // Every format has its own ETag and every response varies by Accept and Accept-Encoding, 304s included
     @GetMapping
-    public List<Employee> getAllEmployees() {
-        return employeeService.getAllEmployees();
+    public ResponseEntity<?> getAllEmployees(@RequestParam(name = "after", defaultValue = "0") long after,
+                                             @RequestParam(name = "limit", defaultValue = "100") int limit,
+                                             @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+                                             @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                             WebRequest request, HttpServletResponse servletResponse) {
+        int pageSize = Math.max(1, Math.min(limit, EmployeeService.MAX_PAGE_SIZE));
+        MediaType format = negotiate(accept, LIST_FORMATS);
+        servletResponse.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        if (format == null) {
+            return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+        }
+        // CBOR and Smile pages are serialized anyway, their ETag comes from the loaded rows
+        if (!MediaType.APPLICATION_JSON.equals(format)) {
+            List<Employee> employees = employeeService.getEmployeesAfter(after, pageSize);
+            String eTag = formatTag(format, pageTag(employees, Employee::getId, Employee::getVersion));
+            if (request.checkNotModified(eTag)) {
+                return null;
+            }
+            return page(employees, pageSize, Employee::getId).eTag(eTag).body(employees);
+        }
+        // JSON only reads the versions, the page itself usually comes from a snapshot
+        String eTag = pageTag(employeeService.getEmployeeVersionsAfter(after, pageSize),
+                EmployeeVersion::id, EmployeeVersion::version);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        EmployeeListSnapshots.Snapshot snapshot = listSnapshots.get(after, pageSize, eTag);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(snapshot.eTag())
+                .contentType(MediaType.APPLICATION_JSON);
+        if (snapshot.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(snapshot.nextCursor()));
+        }
+        if (snapshot.gzip() != null && acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return response.body(snapshot.json());
+    }
+
+    // ?fields=id,email selects and serializes only those columns, id is always included
+    @GetMapping(params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllEmployeeFields(@RequestParam("fields") List<String> fields,
+                                                                          @RequestParam(name = "after", defaultValue = "0") long after,
+                                                                          @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, EmployeeService.MAX_PAGE_SIZE));
+        List<Map<String, Object>> employees = employeeService.getEmployeeFieldsAfter(after, pageSize, fields);
+        return page(employees, pageSize, employee -> (Long) employee.get("id")).body(employees);
     }
 
+    // NDJSON unless the Accept header asks for a CBOR sequence or a Smile value stream
+    @GetMapping(value = "export", produces = {MediaType.APPLICATION_NDJSON_VALUE,
+            BinaryFormatConfig.APPLICATION_CBOR_SEQ_VALUE, BinaryFormatConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportEmployees(@RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType format = negotiate(accept, EXPORT_FORMATS);
+        return export(format, employeeWriters.get(format), employeeService::exportEmployees);
+    }
+
+    @GetMapping(value = "export", params = "fields", produces = {MediaType.APPLICATION_NDJSON_VALUE,
+            BinaryFormatConfig.APPLICATION_CBOR_SEQ_VALUE, BinaryFormatConfig.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportEmployeeFields(@RequestParam("fields") List<String> fields,
+                                                                      @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        MediaType format = negotiate(accept, EXPORT_FORMATS);
+        return export(format, fieldsWriters.get(format),
+                (Consumer<Map<String, Object>> consumer) -> employeeService.exportEmployeeFields(fields, consumer));
+    }
+
+    // event id is the outbox id, a reconnecting client sends the last one it saw as Last-Event-ID
+    @GetMapping(value = "changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = new SseEmitter();
+        EmployeeChangeFeed.Subscription subscription = changeFeed.subscribe(lastEventId, new EmployeeChangeFeed.Listener() {
+            @Override
+            public void onChange(EmployeeChange change) throws IOException {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(change.id()))
+                        .name(change.type().name().toLowerCase(Locale.ROOT))
+                        .data(change.employee(), MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void onIdle() throws IOException {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onError(error -> subscription.cancel());
+        return emitter;
+    }
+
+    @GetMapping("search")
+    public List<Employee> searchEmployees(@RequestParam("q") String query,
+                                          @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return employeeService.searchEmployees(query, limit);
+    }
+
+    // the version is the strong ETag, a revalidation only reads the version column
     @GetMapping("{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") Long employeeId) {
+    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") Long employeeId, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            Optional<EmployeeVersion> version = employeeService.getEmployeeVersion(employeeId);
+            if (version.isPresent() && request.checkNotModified(versionTag(version.get().version()))) {
+                return null;
+            }
+        }
         return employeeService.getEmployeeById(employeeId)
+                .map(employee -> ResponseEntity.ok().eTag(versionTag(employee.getVersion())).body(employee))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getEmployeeFieldsById(@PathVariable("id") Long employeeId,
+                                                                     @RequestParam("fields") List<String> fields) {
+        return employeeService.getEmployeeFieldsById(employeeId, fields)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("{id}")
     public ResponseEntity<Employee> updateEmployee(@PathVariable("id") long employeeId, @RequestBody Employee employee) {
+        employee.setId(employeeId);
+        return ResponseEntity.ok(employeeService.updateEmployee(employee));
+    }
 
-        return employeeService.getEmployeeById(employeeId)
-                .map(savedEmployee -> {
-
-                    savedEmployee.setFirstName(employee.getFirstName());
-                    savedEmployee.setLastName(employee.getLastName());
-                    savedEmployee.setEmail(employee.getEmail());
-
-                    Employee updatedEmployee = employeeService.updateEmployee(savedEmployee);
-                    return new ResponseEntity<>(updatedEmployee, HttpStatus.OK);
-
-                })
-                .orElseGet(() -> ResponseEntity.notFound().build());
+    @PatchMapping("{id}")
+    public ResponseEntity<Void> patchEmployee(@PathVariable("id") long employeeId, @RequestBody Employee changes) {
+        employeeService.patchEmployee(employeeId, changes);
+        return ResponseEntity.noContent().build();
     }
 
     @DeleteMapping("{id}")
@@ -61,5 +266,111 @@ public class EmployeeController {
         return new ResponseEntity<String>("Employee deleted succesfully!.", HttpStatus.OK);
     }
 
+    // body is the list of ids, ids that do not exist are ignored and not counted
+    @DeleteMapping
+    public Map<String, Integer> deleteEmployees(@RequestBody List<Long> employeeIds) {
+        return Map.of("deleted", employeeService.deleteEmployees(employeeIds));
+    }
+
+    private static <T> ResponseEntity.BodyBuilder page(List<T> employees, int pageSize, Function<T, Long> id) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (employees.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(id.apply(employees.get(employees.size() - 1))));
+        }
+        return response;
+    }
+
+    private static String versionTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    // JSON keeps the plain page tag, so a JSON validator never matches a CBOR or Smile page
+    private static String formatTag(MediaType format, String pageTag) {
+        return "\"" + LIST_FORMAT_TAGS.get(format) + "-" + pageTag.substring(1);
+    }
+
+    // changes whenever a row of the page is inserted, updated or deleted
+    static <T> String pageTag(List<T> employees, ToLongFunction<T> id, ToLongFunction<T> version) {
+        StringBuilder versions = new StringBuilder();
+        for (T employee : employees) {
+            versions.append(id.applyAsLong(employee)).append(':').append(version.applyAsLong(employee)).append(',');
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static Map<MediaType, ObjectWriter> exportWriters(Map<MediaType, ObjectMapper> exportMappers, Class<?> type) {
+        Map<MediaType, ObjectWriter> writers = new HashMap<>();
+        exportMappers.forEach((format, mapper) -> writers.put(format, mapper.writerFor(type)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)));
+        return writers;
+    }
+
+    // the first of formats the Accept header allows, formats[0] without an Accept header and null if none is allowed
+    private static MediaType negotiate(String accept, List<MediaType> formats) {
+        if (accept == null) {
+            return formats.get(0);
+        }
+        List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType mediaType : accepted) {
+            for (MediaType format : formats) {
+                if (mediaType.includes(format)) {
+                    return format;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parameters.length == 1 || !parameters[1].trim().matches("q\\s*=\\s*0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // one sequence per response, a Smile stream carries its header once and a CBOR sequence is plain concatenation
+    private static <T> ResponseEntity<StreamingResponseBody> export(MediaType format, ObjectWriter writer,
+                                                                    Consumer<Consumer<T>> export) {
+        StreamingResponseBody body;
+        if (MediaType.APPLICATION_NDJSON.equals(format)) {
+            body = outputStream -> export.accept(value -> writeLine(outputStream, writer, value));
+        } else {
+            body = outputStream -> {
+                try (SequenceWriter sequence = writer.writeValues(outputStream)) {
+                    export.accept(value -> writeValue(sequence, value));
+                }
+            };
+        }
+        return ResponseEntity.ok()
+                .contentType(format)
+                .body(body);
+    }
+
+    private static void writeLine(OutputStream outputStream, ObjectWriter writer, Object value) {
+        try {
+            outputStream.write(writer.writeValueAsBytes(value));
+            outputStream.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeValue(SequenceWriter sequence, Object value) {
+        try {
+            sequence.write(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
 
 }
\ No newline at end of file
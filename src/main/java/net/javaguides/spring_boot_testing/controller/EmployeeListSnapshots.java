@@ -0,0 +1,94 @@
+package net.javaguides.spring_boot_testing.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import net.javaguides.spring_boot_testing.model.Employee;
+import net.javaguides.spring_boot_testing.services.EmployeeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized and gzip compressed JSON pages of GET /api/employees. A snapshot is served while the
+ * page ETag, built from the id and version of every row, still matches, so repeated list calls skip
+ * the entity query, the serialization and the compression. Being keyed on the row versions it also
+ * sees writes made by other instances.
+ */
+@Component
+@Profile("!reactive")
+public class EmployeeListSnapshots {
+
+    // gzip is null below server.compression.min-response-size
+    public record Snapshot(String eTag, Long nextCursor, byte[] json, byte[] gzip) {
+    }
+
+    private record Page(long after, int pageSize) {
+    }
+
+    private final EmployeeService employeeService;
+    private final ObjectWriter writer;
+    private final long minCompressedSize;
+    private final Cache<Page, Snapshot> snapshots;
+
+    public EmployeeListSnapshots(EmployeeService employeeService, ObjectMapper objectMapper,
+                                 @Value("${server.compression.min-response-size:2KB}") DataSize minCompressedSize,
+                                 @Value("${employees.list-snapshots.maximum-size:64MB}") DataSize maximumSize) {
+        this.employeeService = employeeService;
+        this.writer = objectMapper.writerFor(List.class);
+        this.minCompressedSize = minCompressedSize.toBytes();
+        this.snapshots = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((Page page, Snapshot snapshot) -> snapshot.json().length
+                        + (snapshot.gzip() != null ? snapshot.gzip().length : 0))
+                .build();
+    }
+
+    public Snapshot get(long after, int pageSize, String eTag) {
+        Page page = new Page(after, pageSize);
+        Snapshot snapshot = snapshots.getIfPresent(page);
+        if (snapshot == null || !snapshot.eTag().equals(eTag)) {
+            snapshot = build(after, pageSize);
+            snapshots.put(page, snapshot);
+        }
+        return snapshot;
+    }
+
+    private Snapshot build(long after, int pageSize) {
+        List<Employee> employees = employeeService.getEmployeesAfter(after, pageSize);
+        byte[] json;
+        try {
+            json = writer.writeValueAsBytes(employees);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new Snapshot(EmployeeController.pageTag(employees, Employee::getId, Employee::getVersion),
+                employees.size() == pageSize ? employees.get(employees.size() - 1).getId() : null,
+                json, json.length >= minCompressedSize ? gzip(json) : null);
+    }
+
+    // built once and served many times, so it pays to compress harder than the per-response gzip
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,96 @@
+package net.javaguides.spring_boot_testing.controller;
+
+import net.javaguides.spring_boot_testing.model.ReactiveEmployee;
+import net.javaguides.spring_boot_testing.services.EmployeeService;
+import net.javaguides.spring_boot_testing.services.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non blocking counterpart of {@link EmployeeController}, active with the reactive profile.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/employees")
+public class ReactiveEmployeeController {
+
+    private ReactiveEmployeeService employeeService;
+
+    public ReactiveEmployeeController(ReactiveEmployeeService employeeService) {
+        this.employeeService = employeeService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<ReactiveEmployee> createEmployee(@RequestBody ReactiveEmployee employee) {
+        return employeeService.saveEmployee(employee);
+    }
+
+    @PostMapping("batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Flux<ReactiveEmployee> createEmployees(@RequestBody List<ReactiveEmployee> employees) {
+        return employeeService.saveEmployees(employees);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<ReactiveEmployee>>> getAllEmployees(
+            @RequestParam(name = "after", defaultValue = "0") long after,
+            @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, EmployeeService.MAX_PAGE_SIZE));
+        return employeeService.getEmployeesAfter(after, pageSize).collectList().map(employees -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (employees.size() == pageSize) {
+                response.header(EmployeeController.NEXT_CURSOR_HEADER,
+                        String.valueOf(employees.get(employees.size() - 1).getId()));
+            }
+            return response.body(employees);
+        });
+    }
+
+    // streamed page, rows are read from the database only as fast as the client consumes them
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ReactiveEmployee> streamEmployees(@RequestParam(name = "after", defaultValue = "0") long after,
+                                                  @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        return employeeService.getEmployeesAfter(after, limit);
+    }
+
+    @GetMapping(value = "export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ReactiveEmployee> exportEmployees() {
+        return employeeService.exportEmployees();
+    }
+
+    @GetMapping("{id}")
+    public Mono<ResponseEntity<ReactiveEmployee>> getEmployeeById(@PathVariable("id") long employeeId) {
+        return employeeService.getEmployeeById(employeeId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("{id}")
+    public Mono<ResponseEntity<ReactiveEmployee>> updateEmployee(@PathVariable("id") long employeeId,
+                                                                 @RequestBody ReactiveEmployee employee) {
+        employee.setId(employeeId);
+        return employeeService.updateEmployee(employee).map(ResponseEntity::ok);
+    }
+
+    @PatchMapping("{id}")
+    public Mono<ResponseEntity<Void>> patchEmployee(@PathVariable("id") long employeeId,
+                                                    @RequestBody ReactiveEmployee changes) {
+        return employeeService.patchEmployee(employeeId, changes)
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+
+    @DeleteMapping("{id}")
+    public Mono<ResponseEntity<String>> deleteEmployee(@PathVariable("id") long employeeId) {
+        return employeeService.deleteEmployee(employeeId)
+                .then(Mono.just(new ResponseEntity<String>("Employee deleted succesfully!.", HttpStatus.OK)));
+    }
+
+}
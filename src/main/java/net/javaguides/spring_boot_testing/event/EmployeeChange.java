@@ -0,0 +1,5 @@
+package net.javaguides.spring_boot_testing.event;
+
+// a row of the employee_changes outbox, employee is the JSON written by EmployeeChangeOutbox
+public record EmployeeChange(long id, EmployeeChangedEvent.Type type, long employeeId, String employee) {
+}
@@ -0,0 +1,293 @@
+package net.javaguides.spring_boot_testing.event;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.javaguides.spring_boot_testing.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Relays the employee_changes outbox written by {@link EmployeeChangeOutbox} to subscribers of
+ * GET /api/employees/changes. A single poller reads new rows in id order into a bounded buffer of
+ * recent changes, each subscriber keeps its own cursor and is served from that buffer, or from the
+ * table when it resumes from an older Last-Event-ID or falls behind. Writers only insert outbox rows
+ * and a slow subscriber only holds up its own delivery thread.
+ * <p>
+ * {@link EmployeeChangeOutbox} takes ids in commit order, so once an id is visible every lower id has
+ * committed or rolled back for good and a missing id never has to be waited for.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class EmployeeChangeFeed {
+
+    public interface Listener {
+
+        void onChange(EmployeeChange change) throws IOException;
+
+        // called instead when nothing was sent for keep-alive, lets dead connections fail
+        void onIdle() throws IOException;
+    }
+
+    public interface Subscription {
+
+        void cancel();
+    }
+
+    static final int BATCH_SIZE = 500;
+
+    private static final String SELECT_AFTER = "select id, type, employee_id, employee from employee_changes"
+            + " where id > ? order by id limit ?";
+    private static final String SELECT_BETWEEN = "select id, type, employee_id, employee from employee_changes"
+            + " where id > ? and id <= ? order by id limit ?";
+    private static final String DELETE_BEFORE = "delete from employee_changes where created_at < ?";
+    private static final Duration PRUNE_INTERVAL = Duration.ofHours(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration pollInterval;
+    private final int bufferSize;
+    private final Duration keepAlive;
+    private final int maxSubscribers;
+    private final Duration retention;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService deliveries;
+    private final Thread poller;
+    private volatile boolean running = true;
+
+    // guarded by lock, recent holds the changes after recentFrom up to head in id order
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Deque<EmployeeChange> recent = new ArrayDeque<>();
+    private long recentFrom;
+    private volatile long head;
+    private long prunedAt;
+
+    public EmployeeChangeFeed(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                              @Value("${employees.changes.poll-interval:200ms}") Duration pollInterval,
+                              @Value("${employees.changes.buffer-size:10000}") int bufferSize,
+                              @Value("${employees.changes.keep-alive:15s}") Duration keepAlive,
+                              @Value("${employees.changes.max-subscribers:200}") int maxSubscribers,
+                              @Value("${employees.changes.retention:7d}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.pollInterval = pollInterval;
+        this.bufferSize = bufferSize;
+        this.keepAlive = keepAlive;
+        this.maxSubscribers = maxSubscribers;
+        this.retention = retention;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("employee-change-delivery-");
+        threadFactory.setDaemon(true);
+        // at most one delivery per subscriber runs at a time, idle subscribers hold no thread
+        this.deliveries = new ThreadPoolExecutor(0, maxSubscribers, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), threadFactory);
+        meterRegistry.gaugeCollectionSize("employee.changes.subscribers", List.of(), subscribers);
+        meterRegistry.gauge("employee.changes.head", List.of(), this, feed -> feed.head);
+        this.poller = new Thread(this::poll, "employee-change-poller");
+        this.poller.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from employee_changes", Long.class);
+        head = maxId != null ? maxId : 0;
+        recentFrom = head;
+        prunedAt = System.nanoTime();
+        poller.start();
+    }
+
+    // without lastEventId only changes committed from now on are sent
+    public Subscription subscribe(Long lastEventId, Listener listener) {
+        if (!running) {
+            throw new TooManyRequestsException("Employee change feed is shutting down, retry later");
+        }
+        Subscriber subscriber = new Subscriber(listener, lastEventId != null ? lastEventId : head);
+        synchronized (subscribers) {
+            if (subscribers.size() >= maxSubscribers) {
+                throw new TooManyRequestsException("Too many employee change subscribers, retry later");
+            }
+            subscribers.add(subscriber);
+        }
+        schedule(subscriber);
+        return () -> cancel(subscriber);
+    }
+
+    public long head() {
+        return head;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        poller.interrupt();
+        poller.join(pollInterval.toMillis() + 1000);
+        subscribers.forEach(this::cancel);
+        deliveries.shutdownNow();
+    }
+
+    private void poll() {
+        while (running) {
+            try {
+                List<EmployeeChange> changes = jdbcTemplate.query(SELECT_AFTER, EmployeeChangeFeed::change, head, BATCH_SIZE);
+                if (append(changes)) {
+                    subscribers.forEach(this::schedule);
+                }
+                long now = System.nanoTime();
+                subscribers.stream()
+                        .filter(subscriber -> now - subscriber.sentAt >= keepAlive.toNanos())
+                        .forEach(this::schedule);
+                if (now - prunedAt >= PRUNE_INTERVAL.toNanos()) {
+                    prunedAt = now;
+                    prune();
+                }
+                if (changes.size() < BATCH_SIZE) {
+                    Thread.sleep(pollInterval.toMillis());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Polling employee changes after {} failed", head, e);
+                try {
+                    Thread.sleep(pollInterval.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // appends the changes after head in id order, true if any was appended
+    private boolean append(List<EmployeeChange> changes) {
+        if (changes.isEmpty()) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            for (EmployeeChange change : changes) {
+                recent.addLast(change);
+                head = change.id();
+                if (recent.size() > bufferSize) {
+                    recentFrom = recent.removeFirst().id();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    private void prune() {
+        int pruned = jdbcTemplate.update(DELETE_BEFORE, Timestamp.from(Instant.now().minus(retention)));
+        if (pruned > 0) {
+            log.info("Pruned {} employee changes older than {}", pruned, retention);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (running && !subscriber.cancelled && subscriber.scheduled.compareAndSet(false, true)) {
+            deliveries.execute(() -> deliver(subscriber));
+        }
+    }
+
+    private void deliver(Subscriber subscriber) {
+        try {
+            boolean sent = false;
+            List<EmployeeChange> changes;
+            while (!subscriber.cancelled && !(changes = changesAfter(subscriber.cursor)).isEmpty()) {
+                for (EmployeeChange change : changes) {
+                    subscriber.listener.onChange(change);
+                    subscriber.cursor = change.id();
+                }
+                sent = true;
+            }
+            if (!sent && !subscriber.cancelled) {
+                subscriber.listener.onIdle();
+            }
+            subscriber.sentAt = System.nanoTime();
+        } catch (IOException | RuntimeException e) {
+            log.debug("Employee change subscriber at {} disconnected", subscriber.cursor, e);
+            cancel(subscriber);
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        // changes appended while the last batch was being sent
+        if (subscriber.cursor < head) {
+            schedule(subscriber);
+        }
+    }
+
+    private List<EmployeeChange> changesAfter(long cursor) {
+        long upTo;
+        lock.readLock().lock();
+        try {
+            if (cursor >= head) {
+                return List.of();
+            }
+            if (cursor >= recentFrom) {
+                List<EmployeeChange> changes = new ArrayList<>();
+                for (EmployeeChange change : recent) {
+                    if (change.id() > cursor) {
+                        changes.add(change);
+                        if (changes.size() == BATCH_SIZE) {
+                            break;
+                        }
+                    }
+                }
+                return changes;
+            }
+            upTo = recentFrom;
+        } finally {
+            lock.readLock().unlock();
+        }
+        return jdbcTemplate.query(SELECT_BETWEEN, EmployeeChangeFeed::change, cursor, upTo, BATCH_SIZE);
+    }
+
+    private void cancel(Subscriber subscriber) {
+        subscriber.cancelled = true;
+        subscribers.remove(subscriber);
+    }
+
+    private static EmployeeChange change(ResultSet resultSet, int rowNum) throws SQLException {
+        return new EmployeeChange(resultSet.getLong("id"),
+                EmployeeChangedEvent.Type.valueOf(resultSet.getString("type")),
+                resultSet.getLong("employee_id"),
+                resultSet.getString("employee"));
+    }
+
+    private static final class Subscriber {
+
+        private final Listener listener;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long cursor;
+        private volatile long sentAt = System.nanoTime();
+        private volatile boolean cancelled;
+
+        private Subscriber(Listener listener, long cursor) {
+            this.listener = listener;
+            this.cursor = cursor;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package net.javaguides.spring_boot_testing.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records every {@link EmployeeChangedEvent} in the employee_changes table in the transaction of the write,
+ * so a change is stored if and only if the write commits. Rows of one transaction are buffered and
+ * inserted as a single JDBC batch just before commit, under the employee_changes_lock row. The lock is
+ * held until commit, so ids are taken in commit order and {@link EmployeeChangeFeed} never has to wait
+ * for a lower id to show up.
+ */
+@Component
+@Profile("!reactive")
+public class EmployeeChangeOutbox {
+
+    static final String INSERT = "insert into employee_changes (type, employee_id, employee) values (?, ?, ?)";
+    private static final String LOCK = "select id from employee_changes_lock where id = 1 for update";
+
+    private final JdbcTemplate jdbcTemplate;
+    // writes outside a transaction still need one to hold the lock until their row is committed
+    private final TransactionTemplate transactionTemplate;
+    // a deleted employee is sent as its id only
+    private final ObjectMapper objectMapper;
+
+    public EmployeeChangeOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource()));
+        this.objectMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    @EventListener
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        Object[] row = {event.getType().name(), event.getId(), serialize(event)};
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionTemplate.executeWithoutResult(status -> insert(List.<Object[]>of(row)));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<Object[]> pending = (List<Object[]>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<Object[]> rows = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, rows);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(rows);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EmployeeChangeOutbox.this);
+                }
+            });
+            pending = rows;
+        }
+        pending.add(row);
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.queryForObject(LOCK, Integer.class);
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    private String serialize(EmployeeChangedEvent event) {
+        ObjectNode employee = event.isDeleted()
+                ? objectMapper.createObjectNode()
+                : objectMapper.valueToTree(event.getEmployee());
+        employee.put("id", event.getId());
+        try {
+            return objectMapper.writeValueAsString(employee);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Employee " + event.getId() + " change is not serializable", e);
+        }
+    }
+}
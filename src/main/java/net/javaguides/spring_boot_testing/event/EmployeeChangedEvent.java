@@ -0,0 +1,23 @@
+package net.javaguides.spring_boot_testing.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.javaguides.spring_boot_testing.model.Employee;
+
+// published by EmployeeServiceImpl after a write, employee is the row as written and null for deletes
+@Getter
+@AllArgsConstructor
+public class EmployeeChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final long id;
+    private final Employee employee;
+
+    public boolean isDeleted() {
+        return type == Type.DELETED;
+    }
+}
@@ -0,0 +1,76 @@
+package net.javaguides.spring_boot_testing.event;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import net.javaguides.spring_boot_testing.model.ReactiveEmployee;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * R2DBC counterpart of {@link EmployeeChangeOutbox}, writes of the reactive stack record their
+ * employee_changes rows in their own transaction, so servlet instances on the same database relay
+ * them to GET /api/employees/changes. Rows are written the same way, last in the transaction and
+ * under the employee_changes_lock row, so ids stay in commit order.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveEmployeeChangeOutbox {
+
+    private static final String LOCK = "select id from employee_changes_lock where id = 1 for update";
+    private static final String INSERT = "insert into employee_changes (type, employee_id, employee)"
+            + " values (:type, :employeeId, :employee)";
+
+    private final DatabaseClient databaseClient;
+    // a deleted employee is sent as its id only
+    private final ObjectMapper objectMapper;
+
+    public ReactiveEmployeeChangeOutbox(DatabaseClient databaseClient, ObjectMapper objectMapper) {
+        this.databaseClient = databaseClient;
+        this.objectMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    }
+
+    // the caller's transaction must still be open, the lock is held until it commits
+    public Mono<Void> record(EmployeeChangedEvent.Type type, long employeeId, ReactiveEmployee employee) {
+        return lock().then(insert(type, employeeId, employee));
+    }
+
+    public Mono<Void> recordCreated(List<ReactiveEmployee> employees) {
+        return lock().thenMany(Flux.fromIterable(employees)
+                        .concatMap(employee -> insert(EmployeeChangedEvent.Type.CREATED, employee.getId(), employee)))
+                .then();
+    }
+
+    private Mono<Void> lock() {
+        return databaseClient.sql(LOCK).fetch().first().then();
+    }
+
+    private Mono<Void> insert(EmployeeChangedEvent.Type type, long employeeId, ReactiveEmployee employee) {
+        return Mono.fromCallable(() -> serialize(employeeId, employee))
+                .flatMap(json -> databaseClient.sql(INSERT)
+                        .bind("type", type.name())
+                        .bind("employeeId", employeeId)
+                        .bind("employee", json)
+                        .fetch()
+                        .rowsUpdated())
+                .then();
+    }
+
+    private String serialize(long employeeId, ReactiveEmployee employee) {
+        ObjectNode node = employee == null
+                ? objectMapper.createObjectNode()
+                : objectMapper.valueToTree(employee);
+        node.put("id", employeeId);
+        try {
+            return objectMapper.writeValueAsString(node);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Employee " + employeeId + " change is not serializable", e);
+        }
+    }
+}
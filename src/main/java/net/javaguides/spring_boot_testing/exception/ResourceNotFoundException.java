@@ -1,5 +1,9 @@
 package net.javaguides.spring_boot_testing.exception;
 
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
 public class ResourceNotFoundException  extends RuntimeException{
 
     public ResourceNotFoundException(String message) {
@@ -0,0 +1,209 @@
+package net.javaguides.spring_boot_testing.ingestion;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.javaguides.spring_boot_testing.exception.InvalidRequestException;
+import net.javaguides.spring_boot_testing.exception.ResourceConflictException;
+import net.javaguides.spring_boot_testing.model.Employee;
+import net.javaguides.spring_boot_testing.services.EmployeeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Imports a CSV upload with a firstName, lastName and email header row, in any order and case,
+ * other columns are ignored. Rows are parsed one at a time from the stream and valid rows are
+ * written in chunks of chunk-size, each chunk is one {@link EmployeeService#saveEmployees}
+ * transaction after its emails were checked against the table in a single query.
+ * <p>
+ * Invalid and duplicate rows are reported and skipped. A chunk that fails to write stops the import,
+ * earlier chunks stay committed and the report's resumeFromRow is where a retry with
+ * ?fromRow= continues.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+public class EmployeeCsvImporter {
+
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final Pattern EMAIL = Pattern.compile("[^@\\s]+@[^@\\s]+");
+    private static final int MAX_LENGTH = 255;
+    private static final List<String> COLUMNS = List.of("firstname", "lastname", "email");
+
+    private final EmployeeService employeeService;
+    private final ObjectReader reader;
+    private final int chunkSize;
+    private final Counter importedRows;
+    private final Counter rejectedRows;
+
+    public EmployeeCsvImporter(EmployeeService employeeService, MeterRegistry meterRegistry,
+                               @Value("${employees.import.chunk-size:1000}") int chunkSize) {
+        this.employeeService = employeeService;
+        this.reader = new CsvMapper()
+                .enable(CsvParser.Feature.WRAP_AS_ARRAY)
+                .enable(CsvParser.Feature.TRIM_SPACES)
+                .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+                .readerFor(String[].class)
+                .with(CsvSchema.emptySchema());
+        this.chunkSize = chunkSize;
+        this.importedRows = meterRegistry.counter("employee.import.rows", "outcome", "imported");
+        this.rejectedRows = meterRegistry.counter("employee.import.rows", "outcome", "rejected");
+    }
+
+    // rows before fromRow are read but not imported, so a failed import can be resumed with the same file
+    public EmployeeImportReport importCsv(InputStream csv, long fromRow) {
+        long started = System.nanoTime();
+        EmployeeImportReport report = new EmployeeImportReport();
+        Map<String, PendingRow> chunk = new LinkedHashMap<>();
+        long chunkFromRow = Math.max(1, fromRow);
+        long row = 0;
+        try (MappingIterator<String[]> rows = reader.readValues(csv)) {
+            int[] columns = columns(rows.hasNextValue() ? rows.nextValue() : null);
+            while (rows.hasNextValue()) {
+                String[] values = rows.nextValue();
+                row++;
+                if (row < fromRow) {
+                    report.skipped();
+                    continue;
+                }
+                report.read();
+                PendingRow pending = parse(row, values, columns, report);
+                if (pending == null) {
+                    continue;
+                }
+                // uk_employees_email compares case-insensitively under the default MySQL collation
+                PendingRow duplicate = chunk.putIfAbsent(pending.employee().getEmail().toLowerCase(Locale.ROOT), pending);
+                if (duplicate != null) {
+                    reject(report, row, pending.employee().getEmail(), "Email is duplicated in row " + duplicate.row());
+                } else if (chunk.size() == chunkSize) {
+                    if (!write(chunk, chunkFromRow, report)) {
+                        return report.finish(System.nanoTime() - started);
+                    }
+                    chunk.clear();
+                    chunkFromRow = row + 1;
+                }
+            }
+            write(chunk, chunkFromRow, report);
+        } catch (IOException e) {
+            // rows parsed before the malformed one are still written
+            if (write(chunk, chunkFromRow, report)) {
+                report.failed(row + 1, "Malformed CSV after row " + row + ": " + e.getMessage());
+            }
+        }
+        return report.finish(System.nanoTime() - started);
+    }
+
+    private int[] columns(String[] header) {
+        if (header == null) {
+            throw new InvalidRequestException("CSV is empty, expected a header row with " + COLUMNS);
+        }
+        int[] columns = new int[COLUMNS.size()];
+        Arrays.fill(columns, -1);
+        for (int i = 0; i < header.length; i++) {
+            int column = COLUMNS.indexOf(header[i].toLowerCase(Locale.ROOT).replaceAll("[^a-z]", ""));
+            if (column >= 0 && columns[column] < 0) {
+                columns[column] = i;
+            }
+        }
+        for (int column = 0; column < columns.length; column++) {
+            if (columns[column] < 0) {
+                throw new InvalidRequestException("CSV header has no " + COLUMNS.get(column) + " column");
+            }
+        }
+        return columns;
+    }
+
+    private PendingRow parse(long row, String[] values, int[] columns, EmployeeImportReport report) {
+        String firstName = value(values, columns[0]);
+        String lastName = value(values, columns[1]);
+        String email = value(values, columns[2]);
+        String error = null;
+        if (firstName.isEmpty() || lastName.isEmpty() || email.isEmpty()) {
+            error = "firstName, lastName and email are required";
+        } else if (firstName.length() > MAX_LENGTH || lastName.length() > MAX_LENGTH || email.length() > MAX_LENGTH) {
+            error = "Values are limited to " + MAX_LENGTH + " characters";
+        } else if (!EMAIL.matcher(email).matches()) {
+            error = "Email " + email + " is not valid";
+        }
+        if (error != null) {
+            reject(report, row, email, error);
+            return null;
+        }
+        return new PendingRow(row, Employee.builder().firstName(firstName).lastName(lastName).email(email).build());
+    }
+
+    // false when the chunk could not be written, the report then says where to resume
+    private boolean write(Map<String, PendingRow> chunk, long chunkFromRow, EmployeeImportReport report) {
+        if (chunk.isEmpty()) {
+            return true;
+        }
+        // a conflict means another writer inserted one of the emails after the check, check again once
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Set<String> existing = new HashSet<>();
+                for (String email : employeeService.getExistingEmails(chunk.values().stream()
+                        .map(pending -> pending.employee().getEmail())
+                        .toList())) {
+                    existing.add(email.toLowerCase(Locale.ROOT));
+                }
+                List<Employee> employees = chunk.entrySet().stream()
+                        .filter(pending -> !existing.contains(pending.getKey()))
+                        .map(pending -> pending.getValue().employee())
+                        .toList();
+                if (!employees.isEmpty()) {
+                    employeeService.saveEmployees(employees);
+                }
+                for (Map.Entry<String, PendingRow> pending : chunk.entrySet()) {
+                    if (existing.contains(pending.getKey())) {
+                        reject(report, pending.getValue().row(), pending.getValue().employee().getEmail(), "Employee already exists");
+                    }
+                }
+                report.imported(employees.size());
+                importedRows.increment(employees.size());
+                return true;
+            } catch (ResourceConflictException e) {
+                if (attempt == 2) {
+                    return failed(chunkFromRow, e, report);
+                }
+            } catch (RuntimeException e) {
+                return failed(chunkFromRow, e, report);
+            }
+        }
+    }
+
+    private boolean failed(long chunkFromRow, RuntimeException e, EmployeeImportReport report) {
+        log.warn("Employee import chunk from row {} failed", chunkFromRow, e);
+        report.failed(chunkFromRow, "Rows from " + chunkFromRow + " were not imported: " + e.getMessage());
+        return false;
+    }
+
+    private void reject(EmployeeImportReport report, long row, String email, String message) {
+        report.rejected(row, email.isEmpty() ? null : email, message);
+        rejectedRows.increment();
+    }
+
+    private static String value(String[] values, int column) {
+        return column < values.length && values[column] != null ? values[column] : "";
+    }
+
+    private record PendingRow(long row, Employee employee) {
+    }
+}
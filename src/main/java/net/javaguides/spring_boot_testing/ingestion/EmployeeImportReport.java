@@ -0,0 +1,55 @@
+package net.javaguides.spring_boot_testing.ingestion;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// rows are numbered from 1 after the header, resumeFromRow is only set when the import stopped early
+@Getter
+public class EmployeeImportReport {
+
+    public record RowError(long row, String email, String message) {
+    }
+
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private long skipped;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+    private Long resumeFromRow;
+    private String failure;
+    private final List<RowError> errors = new ArrayList<>();
+
+    void read() {
+        rowsRead++;
+    }
+
+    void skipped() {
+        skipped++;
+    }
+
+    void imported(int rows) {
+        imported += rows;
+    }
+
+    // every rejected row is counted, only the first MAX_REPORTED_ERRORS are listed
+    void rejected(long row, String email, String message) {
+        rejected++;
+        if (errors.size() < EmployeeCsvImporter.MAX_REPORTED_ERRORS) {
+            errors.add(new RowError(row, email, message));
+        }
+    }
+
+    void failed(long resumeFromRow, String failure) {
+        this.resumeFromRow = resumeFromRow;
+        this.failure = failure;
+    }
+
+    EmployeeImportReport finish(long elapsedNanos) {
+        elapsedMillis = elapsedNanos / 1_000_000;
+        rowsPerSecond = elapsedNanos > 0 ? rowsRead * 1_000_000_000 / elapsedNanos : rowsRead;
+        return this;
+    }
+}
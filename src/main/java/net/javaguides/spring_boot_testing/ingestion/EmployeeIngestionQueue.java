@@ -0,0 +1,179 @@
+package net.javaguides.spring_boot_testing.ingestion;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.javaguides.spring_boot_testing.exception.TooManyRequestsException;
+import net.javaguides.spring_boot_testing.model.Employee;
+import net.javaguides.spring_boot_testing.services.EmployeeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind mode for POST /api/employees, enabled with employees.ingestion.write-behind.enabled=true.
+ * Creates are accepted into a bounded queue and a single writer thread drains it into
+ * {@link EmployeeService#saveEmployees} batches. A full queue is rejected with 429, on shutdown
+ * new creates are rejected and everything already accepted is written before the context closes.
+ */
+@Slf4j
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(name = "employees.ingestion.write-behind.enabled", havingValue = "true")
+public class EmployeeIngestionQueue {
+
+    private static final Duration STATUS_RETENTION = Duration.ofHours(1);
+
+    private final EmployeeService employeeService;
+    private final BlockingQueue<PendingEmployee> queue;
+    private final int batchSize;
+    private final Duration drainTimeout;
+    // QUEUED statuses are kept until written, only finished ones are bounded and expire
+    private final Map<String, IngestionStatus> queuedStatuses = new ConcurrentHashMap<>();
+    private final Cache<String, IngestionStatus> finishedStatuses;
+    private final Counter rejections;
+    private final Thread writer;
+    // submit offers under the read lock, shutdown stops accepting under the write lock, so every
+    // accepted create is in the queue before the writer can see accepting=false and an empty queue
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private volatile boolean accepting = true;
+
+    public EmployeeIngestionQueue(EmployeeService employeeService, MeterRegistry meterRegistry,
+                                  @Value("${employees.ingestion.queue-capacity:10000}") int capacity,
+                                  @Value("${employees.ingestion.batch-size:500}") int batchSize,
+                                  @Value("${employees.ingestion.drain-timeout:30s}") Duration drainTimeout) {
+        this.employeeService = employeeService;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.drainTimeout = drainTimeout;
+        this.finishedStatuses = Caffeine.newBuilder()
+                .maximumSize(capacity * 10L)
+                .expireAfterWrite(STATUS_RETENTION)
+                .build();
+        this.rejections = meterRegistry.counter("employee.ingestion.rejections");
+        meterRegistry.gaugeCollectionSize("employee.ingestion.queue.size", List.of(), queue);
+        this.writer = new Thread(this::drain, "employee-ingestion-writer");
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        writer.start();
+    }
+
+    public IngestionStatus submit(Employee employee) {
+        String trackingId = UUID.randomUUID().toString();
+        IngestionStatus status = IngestionStatus.queued(trackingId);
+        queuedStatuses.put(trackingId, status);
+        boolean shuttingDown;
+        boolean queued;
+        acceptLock.readLock().lock();
+        try {
+            shuttingDown = !accepting;
+            queued = !shuttingDown && queue.offer(new PendingEmployee(trackingId, employee));
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        if (!queued) {
+            queuedStatuses.remove(trackingId);
+            rejections.increment();
+            throw new TooManyRequestsException(shuttingDown
+                    ? "Employee ingestion is shutting down, retry later"
+                    : "Employee ingestion queue is full, retry later");
+        }
+        return status;
+    }
+
+    public Optional<IngestionStatus> getStatus(String trackingId) {
+        IngestionStatus finished = finishedStatuses.getIfPresent(trackingId);
+        return Optional.ofNullable(finished != null ? finished : queuedStatuses.get(trackingId));
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        acceptLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        writer.join(drainTimeout.toMillis());
+        if (writer.isAlive()) {
+            log.warn("Employee ingestion queue not drained after {}, {} creates lost", drainTimeout, queue.size());
+            writer.interrupt();
+        }
+    }
+
+    private void drain() {
+        List<PendingEmployee> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                PendingEmployee first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Employee ingestion batch of {} failed", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<PendingEmployee> batch) {
+        try {
+            List<Employee> saved = employeeService.saveEmployees(batch.stream().map(PendingEmployee::employee).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                String trackingId = batch.get(i).trackingId();
+                finish(IngestionStatus.created(trackingId, saved.get(i).getId()));
+            }
+        } catch (RuntimeException e) {
+            // one bad row fails the whole batch, retry row by row so only that row is reported as failed
+            for (PendingEmployee pending : batch) {
+                try {
+                    Employee saved = employeeService.saveEmployee(pending.employee());
+                    finish(IngestionStatus.created(pending.trackingId(), saved.getId()));
+                } catch (RuntimeException rowException) {
+                    finish(IngestionStatus.failed(pending.trackingId(), rowException.getMessage()));
+                }
+            }
+        }
+    }
+
+    // the finished status is visible before the queued one goes away
+    private void finish(IngestionStatus status) {
+        finishedStatuses.put(status.getTrackingId(), status);
+        queuedStatuses.remove(status.getTrackingId());
+    }
+
+    private record PendingEmployee(String trackingId, Employee employee) {
+    }
+}
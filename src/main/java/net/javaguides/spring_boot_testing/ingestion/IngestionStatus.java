@@ -0,0 +1,30 @@
+package net.javaguides.spring_boot_testing.ingestion;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class IngestionStatus {
+
+    public enum State {
+        QUEUED, CREATED, FAILED
+    }
+
+    private final String trackingId;
+    private final State state;
+    private final Long employeeId;
+    private final String error;
+
+    static IngestionStatus queued(String trackingId) {
+        return new IngestionStatus(trackingId, State.QUEUED, null, null);
+    }
+
+    static IngestionStatus created(String trackingId, long employeeId) {
+        return new IngestionStatus(trackingId, State.CREATED, employeeId, null);
+    }
+
+    static IngestionStatus failed(String trackingId, String error) {
+        return new IngestionStatus(trackingId, State.FAILED, null, error);
+    }
+}
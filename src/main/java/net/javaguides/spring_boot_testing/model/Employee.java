@@ -2,6 +2,9 @@ package net.javaguides.spring_boot_testing.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import net.javaguides.spring_boot_testing.config.HibernateCacheConfig;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Getter
 @Setter
@@ -9,11 +12,15 @@ import lombok.*;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "employees")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.EMPLOYEE_REGION)
+@Table(name = "employees", uniqueConstraints = @UniqueConstraint(name = "uk_employees_email", columnNames = "email"))
 public class Employee {
 
+    // IDENTITY disables JDBC insert batching, a pooled sequence lets Hibernate
+    // hand out ids in blocks of allocationSize without a round trip per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+    @SequenceGenerator(name = "employees_seq", sequenceName = "employees_seq", allocationSize = 50)
     private long id;
     @Column(name = "first_name", nullable = false)
     private String firstName;
@@ -21,5 +28,8 @@ public class Employee {
     private String lastName;
     @Column(name = "email", nullable = false)
     private String email;
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
 
 }
@@ -0,0 +1,31 @@
+package net.javaguides.spring_boot_testing.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+// R2DBC mapping of the employees table owned by Employee, used by the reactive profile
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table("employees")
+public class ReactiveEmployee {
+
+    // assigned from employees_seq by ReactiveEmployeeIdGenerator, a null version marks a new row
+    @Id
+    private Long id;
+    @Column("first_name")
+    private String firstName;
+    @Column("last_name")
+    private String lastName;
+    @Column("email")
+    private String email;
+    @Version
+    @Column("version")
+    private Long version;
+
+}
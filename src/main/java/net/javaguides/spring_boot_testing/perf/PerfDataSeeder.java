@@ -0,0 +1,84 @@
+package net.javaguides.spring_boot_testing.perf;
+
+import lombok.extern.slf4j.Slf4j;
+import net.javaguides.spring_boot_testing.model.Employee;
+import net.javaguides.spring_boot_testing.services.EmployeeService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills the embedded database of the perf profile with employees.perf.seed.employees synthetic
+ * employees before the application is ready. Names are random syllables from a fixed seed, so runs
+ * are repeatable and name searches hit a realistic spread of prefixes.
+ */
+@Slf4j
+@Component
+@Profile("perf")
+public class PerfDataSeeder implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final String[] SYLLABLES = {"an", "be", "ca", "da", "el", "fa", "ge", "ha", "il", "jo", "ka",
+            "lu", "ma", "ne", "or", "pa", "ri", "sa", "te", "ul", "va", "xi", "yo", "za"};
+
+    private final EmployeeService employeeService;
+    private final int employees;
+    private final long randomSeed;
+    private volatile long firstId;
+    private volatile long lastId;
+
+    public PerfDataSeeder(EmployeeService employeeService,
+                          @Value("${employees.perf.seed.employees:20000}") int employees,
+                          @Value("${employees.perf.seed.random-seed:42}") long randomSeed) {
+        this.employeeService = employeeService;
+        this.employees = employees;
+        this.randomSeed = randomSeed;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        Random random = new Random(randomSeed);
+        List<Employee> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < employees; i++) {
+            batch.add(Employee.builder()
+                    .firstName(name(random))
+                    .lastName(name(random))
+                    .email("seed" + i + "@perf.test")
+                    .build());
+            if (batch.size() == BATCH_SIZE || i == employees - 1) {
+                List<Employee> saved = employeeService.saveEmployees(batch);
+                if (firstId == 0) {
+                    firstId = saved.get(0).getId();
+                }
+                lastId = saved.get(saved.size() - 1).getId();
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        log.info("Seeded {} employees in {} ms", employees, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // seeded ids are contiguous, sequence blocks are handed out in order on a fresh database
+    public long getFirstId() {
+        return firstId;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    static String name(Random random) {
+        StringBuilder name = new StringBuilder();
+        for (int syllables = 2 + random.nextInt(2); syllables > 0; syllables--) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+}
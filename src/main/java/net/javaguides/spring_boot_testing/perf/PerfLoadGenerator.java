@@ -0,0 +1,293 @@
+package net.javaguides.spring_boot_testing.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the running application over HTTP once it is ready, concurrency workers send a weighted
+ * mix of requests for warmup and then duration, and the measured requests are reported per operation.
+ * Without a rate the workers run closed loop, each sends its next request when the last one returned.
+ * With a rate, requests are scheduled at fixed intervals and latency is measured from the scheduled
+ * time, so a stalled server shows up in the percentiles instead of lowering the request rate.
+ */
+@Slf4j
+@Component
+@Profile("perf")
+public class PerfLoadGenerator {
+
+    public static final List<String> OPERATIONS = List.of("get-by-id", "list", "search", "create", "update");
+
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final PerfDataSeeder seeder;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int concurrency;
+    private final Duration warmup;
+    private final Duration duration;
+    private final int rate;
+    private final Map<String, Integer> mix;
+    private final int totalWeight;
+    private final String reportFile;
+    private final boolean exitWhenDone;
+    private final HttpClient client;
+    private final AtomicLong creates = new AtomicLong();
+
+    public PerfLoadGenerator(PerfDataSeeder seeder, ObjectMapper objectMapper,
+                             @Value("${employees.perf.load.enabled:true}") boolean enabled,
+                             @Value("${employees.perf.load.concurrency:16}") int concurrency,
+                             @Value("${employees.perf.load.warmup:10s}") Duration warmup,
+                             @Value("${employees.perf.load.duration:30s}") Duration duration,
+                             @Value("${employees.perf.load.rate:0}") int rate,
+                             @Value("${employees.perf.load.mix:get-by-id:60,list:15,search:15,create:5,update:5}") String mix,
+                             @Value("${employees.perf.load.report-file:}") String reportFile,
+                             @Value("${employees.perf.load.exit-when-done:false}") boolean exitWhenDone) {
+        this.seeder = seeder;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.concurrency = concurrency;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.rate = rate;
+        this.mix = mix(mix);
+        this.totalWeight = this.mix.values().stream().mapToInt(Integer::intValue).sum();
+        this.reportFile = reportFile;
+        this.exitWhenDone = exitWhenDone;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start(ApplicationReadyEvent event) {
+        if (!enabled) {
+            return;
+        }
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        Thread generator = new Thread(() -> {
+            PerfReport report = run(URI.create("http://localhost:" + port));
+            if (exitWhenDone) {
+                System.exit(SpringApplication.exit(context, () -> report.errors() > 0 ? 1 : 0));
+            }
+        }, "perf-load-generator");
+        generator.start();
+    }
+
+    public PerfReport run(URI baseUri) {
+        if (!warmup.isZero()) {
+            log.info("Warming up for {} with {} workers", warmup, concurrency);
+            drive(baseUri, warmup, new SimpleMeterRegistry());
+        }
+        log.info("Measuring for {} with {} workers, mix {}", duration, concurrency, mix);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        long elapsedNanos = drive(baseUri, duration, registry);
+        PerfReport report = report(registry, elapsedNanos);
+        log(report);
+        if (!reportFile.isEmpty()) {
+            try {
+                objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File(reportFile), report);
+            } catch (IOException e) {
+                log.warn("Writing perf report to {} failed", reportFile, e);
+            }
+        }
+        return report;
+    }
+
+    private long drive(URI baseUri, Duration duration, SimpleMeterRegistry registry) {
+        Map<String, Timer> timers = new LinkedHashMap<>();
+        Map<String, Counter> errors = new LinkedHashMap<>();
+        for (String operation : mix.keySet()) {
+            // one bucket for the whole run so the percentiles cover every request
+            timers.put(operation, Timer.builder("perf.requests")
+                    .tag("operation", operation)
+                    .publishPercentiles(PERCENTILES)
+                    .percentilePrecision(2)
+                    .distributionStatisticExpiry(duration.plusMinutes(1))
+                    .distributionStatisticBufferLength(1)
+                    .register(registry));
+            errors.put(operation, registry.counter("perf.errors", "operation", operation));
+        }
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        long intervalNanos = rate > 0 ? TimeUnit.SECONDS.toNanos(concurrency) / rate : 0;
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            long firstRequest = start + (intervalNanos * i) / concurrency;
+            Thread worker = new Thread(() -> work(baseUri, deadline, firstRequest, intervalNanos, timers, errors),
+                    "perf-load-" + i);
+            worker.start();
+            workers.add(worker);
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private void work(URI baseUri, long deadline, long firstRequest, long intervalNanos,
+                      Map<String, Timer> timers, Map<String, Counter> errors) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long scheduled = firstRequest;
+        while (true) {
+            long begin;
+            if (intervalNanos > 0) {
+                if (scheduled >= deadline) {
+                    return;
+                }
+                // parkNanos may return early or spuriously, an early send would hide coordinated omission
+                long remaining;
+                while ((remaining = scheduled - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(remaining);
+                    if (Thread.currentThread().isInterrupted()) {
+                        return;
+                    }
+                }
+                begin = scheduled;
+                scheduled += intervalNanos;
+            } else {
+                begin = System.nanoTime();
+            }
+            if (begin >= deadline) {
+                return;
+            }
+            String operation = pick(random);
+            boolean failed;
+            try {
+                HttpResponse<Void> response = client.send(request(baseUri, operation, random), HttpResponse.BodyHandlers.discarding());
+                failed = response.statusCode() >= 400;
+            } catch (IOException e) {
+                failed = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            timers.get(operation).record(System.nanoTime() - begin, TimeUnit.NANOSECONDS);
+            if (failed) {
+                errors.get(operation).increment();
+            }
+        }
+    }
+
+    private HttpRequest request(URI baseUri, String operation, ThreadLocalRandom random) {
+        long id = random.nextLong(seeder.getFirstId(), seeder.getLastId() + 1);
+        HttpRequest.Builder request = switch (operation) {
+            case "get-by-id" -> HttpRequest.newBuilder(baseUri.resolve("/api/employees/" + id));
+            case "list" -> HttpRequest.newBuilder(baseUri.resolve("/api/employees?limit=100&after=" + id));
+            case "search" -> HttpRequest.newBuilder(baseUri.resolve("/api/employees/search?q="
+                    + PerfDataSeeder.name(random).substring(0, 3)));
+            case "create" -> HttpRequest.newBuilder(baseUri.resolve("/api/employees"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"firstName\":\"" + PerfDataSeeder.name(random)
+                            + "\",\"lastName\":\"" + PerfDataSeeder.name(random)
+                            + "\",\"email\":\"load" + creates.incrementAndGet() + "@perf.test\"}"));
+            case "update" -> HttpRequest.newBuilder(baseUri.resolve("/api/employees/" + id))
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"lastName\":\""
+                            + PerfDataSeeder.name(random) + "\"}"));
+            default -> throw new IllegalStateException("Unknown perf operation " + operation);
+        };
+        return request.timeout(REQUEST_TIMEOUT).build();
+    }
+
+    private String pick(ThreadLocalRandom random) {
+        int weight = random.nextInt(totalWeight);
+        for (Map.Entry<String, Integer> operation : mix.entrySet()) {
+            weight -= operation.getValue();
+            if (weight < 0) {
+                return operation.getKey();
+            }
+        }
+        throw new IllegalStateException("Perf mix " + mix + " has no weight");
+    }
+
+    private PerfReport report(SimpleMeterRegistry registry, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        List<PerfReport.Operation> operations = new ArrayList<>();
+        long requests = 0;
+        long errors = 0;
+        for (String operation : mix.keySet()) {
+            HistogramSnapshot snapshot = registry.get("perf.requests").tag("operation", operation).timer().takeSnapshot();
+            long operationErrors = (long) registry.get("perf.errors").tag("operation", operation).counter().count();
+            // percentiles are bucket estimates and can land just above the exact max
+            double max = snapshot.max(TimeUnit.MILLISECONDS);
+            double[] percentiles = new double[PERCENTILES.length];
+            ValueAtPercentile[] values = snapshot.percentileValues();
+            for (int i = 0; i < percentiles.length; i++) {
+                percentiles[i] = Math.min(values[i].value(TimeUnit.MILLISECONDS), max);
+            }
+            operations.add(new PerfReport.Operation(operation, snapshot.count(), operationErrors, snapshot.count() / seconds,
+                    percentiles[0], percentiles[1], percentiles[2], percentiles[3], max));
+            requests += snapshot.count();
+            errors += operationErrors;
+        }
+        return new PerfReport(concurrency, elapsedNanos / 1_000_000, requests, errors, requests / seconds, operations);
+    }
+
+    private static void log(PerfReport report) {
+        log.info(String.format("%d requests in %d ms with %d workers, %.1f req/s, %d errors",
+                report.requests(), report.durationMillis(), report.concurrency(), report.throughput(), report.errors()));
+        log.info(String.format("%-10s %9s %9s %7s %9s %9s %9s %9s %9s",
+                "operation", "requests", "req/s", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (PerfReport.Operation operation : report.operations()) {
+            log.info(String.format("%-10s %9d %9.1f %7d %9.2f %9.2f %9.2f %9.2f %9.2f",
+                    operation.name(), operation.requests(), operation.throughput(), operation.errors(),
+                    operation.p50(), operation.p90(), operation.p99(), operation.p999(), operation.max()));
+        }
+    }
+
+    // "get-by-id:60,list:15" to operation weights
+    private static Map<String, Integer> mix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] operation = entry.trim().split(":");
+            if (!OPERATIONS.contains(operation[0]) || operation.length != 2) {
+                throw new IllegalArgumentException("Invalid perf mix entry " + entry + ", expected operation:weight with one of " + OPERATIONS);
+            }
+            int weight = Integer.parseInt(operation[1].trim());
+            if (weight > 0) {
+                weights.put(operation[0], weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Perf mix " + mix + " has no weight");
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,12 @@
+package net.javaguides.spring_boot_testing.perf;
+
+import java.util.List;
+
+// latencies in milliseconds, throughput in requests per second over the measured duration
+public record PerfReport(int concurrency, long durationMillis, long requests, long errors, double throughput,
+                         List<Operation> operations) {
+
+    public record Operation(String name, long requests, long errors, double throughput, double p50, double p90,
+                            double p99, double p999, double max) {
+    }
+}
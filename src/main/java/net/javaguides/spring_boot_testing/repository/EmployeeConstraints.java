@@ -0,0 +1,47 @@
+package net.javaguides.spring_boot_testing.repository;
+
+import io.r2dbc.spi.R2dbcException;
+import org.hibernate.exception.ConstraintViolationException;
+
+import java.sql.SQLException;
+import java.util.Locale;
+
+// names of the employees constraints the services translate into client errors
+public final class EmployeeConstraints {
+
+    public static final String UNIQUE_EMAIL = "uk_employees_email";
+
+    // SQLState of a unique violation on H2, the MySQL vendor code for a duplicate key
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+
+    private EmployeeConstraints() {
+    }
+
+    // true only for a violation of uk_employees_email, NOT NULL, length or FK violations are not duplicates
+    public static boolean isDuplicateEmail(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && namesUniqueEmail(violation.getConstraintName())) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && isUniqueViolation(sql.getSQLState(), sql.getErrorCode())
+                    && namesUniqueEmail(sql.getMessage())) {
+                return true;
+            }
+            if (cause instanceof R2dbcException r2dbc && isUniqueViolation(r2dbc.getSqlState(), r2dbc.getErrorCode())
+                    && namesUniqueEmail(r2dbc.getMessage())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isUniqueViolation(String sqlState, int errorCode) {
+        return UNIQUE_VIOLATION_SQL_STATE.equals(sqlState) || errorCode == MYSQL_DUPLICATE_ENTRY;
+    }
+
+    // H2 reports PUBLIC.UK_EMPLOYEES_EMAIL_INDEX_x, MySQL employees.uk_employees_email
+    private static boolean namesUniqueEmail(String text) {
+        return text != null && text.toLowerCase(Locale.ROOT).contains(UNIQUE_EMAIL);
+    }
+}
@@ -1,26 +1,91 @@
 package net.javaguides.spring_boot_testing.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import net.javaguides.spring_boot_testing.config.HibernateCacheConfig;
 import net.javaguides.spring_boot_testing.model.Employee;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>, EmployeeRepositoryCustom {
 
+    // query cache results are invalidated by any write to the employees table, see HibernateCacheConfig
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.EMPLOYEE_QUERY_REGION)
+    })
     Optional<Employee> findByEmail(String email);
 
+    List<Employee> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    Optional<EmployeeVersion> findVersionById(long id);
+
+    List<EmployeeVersion> findVersionsByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+    // fetch size is applied as a server side cursor on MySQL (useCursorFetch=true),
+    // a full export bypasses the second-level cache instead of flushing it
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    @Query("select e from Employee e order by e.id")
+    Stream<Employee> streamAll();
+
+    // read from the table, not from the persistence context or the second-level cache, so it sees
+    // the bulk updates of the current transaction
+    @Query("select new net.javaguides.spring_boot_testing.model.Employee(e.id, e.firstName, e.lastName, e.email, e.version) " +
+            "from Employee e where e.id = :id")
+    Optional<Employee> findCurrentById(@Param("id") long id);
+
+    @Query("select e.email from Employee e where e.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // locks the matched rows, so the ids it returns are exactly the rows a following delete removes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e.id from Employee e where e.id in :ids")
+    List<Long> lockExistingIds(@Param("ids") Collection<Long> ids);
+
+    // name lookups are not unique, they are served by idx_employees_first_name_last_name
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.EMPLOYEE_QUERY_REGION)
+    })
     @Query("select e from Employee e where e.firstName = ?1 and e.lastName = ?2 ")
-    Employee findByJPQL(String firstName, String lastName);
+    List<Employee> findByJPQL(String firstName, String lastName);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.EMPLOYEE_QUERY_REGION)
+    })
     @Query("select e from Employee e where e.firstName = :firstName and e.lastName = :lastName ")
-    Employee findByJPQLNameParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
+    List<Employee> findByJPQLNameParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
+    // native queries are only invalidated by writes to the spaces they declare
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.EMPLOYEE_QUERY_REGION),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees")
+    })
     @Query(value = "select * from employees e where e.first_name = ?1 and e.last_name = ?2", nativeQuery = true)
-    Employee findByNativeSQL(String firstName, String lastName);
+    List<Employee> findByNativeSQL(String firstName, String lastName);
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = HibernateCacheConfig.EMPLOYEE_QUERY_REGION),
+            @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "employees")
+    })
     @Query(value = "select * from employees e where e.first_name = :firstName and e.last_name = :lastName", nativeQuery = true)
-    Employee findByNativeSQLNameParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
+    List<Employee> findByNativeSQLNameParams(@Param("firstName") String firstName, @Param("lastName") String lastName);
 
 }
@@ -0,0 +1,29 @@
+package net.javaguides.spring_boot_testing.repository;
+
+import net.javaguides.spring_boot_testing.model.Employee;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface EmployeeRepositoryCustom {
+
+    int updateIfVersionMatches(long id, long version, String firstName, String lastName, String email);
+
+    int patchEmployee(long id, Employee changes);
+
+    // one DELETE statement each instead of the SELECT + DELETE of deleteById, the count tells what matched
+    int deleteEmployee(long id);
+
+    int deleteEmployees(Collection<Long> ids);
+
+    // projections keyed by Employee attribute name, in the order of fields
+    List<Map<String, Object>> findFieldsByIdGreaterThan(long id, int limit, Collection<String> fields);
+
+    Optional<Map<String, Object>> findFieldsById(long id, Collection<String> fields);
+
+    Stream<Map<String, Object>> streamFields(Collection<String> fields);
+
+}
@@ -0,0 +1,183 @@
+package net.javaguides.spring_boot_testing.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import net.javaguides.spring_boot_testing.config.HibernateCacheConfig;
+import net.javaguides.spring_boot_testing.model.Employee;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom {
+
+    static final String EMPLOYEE_WRITES_SPACE = "employee_writes";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int updateIfVersionMatches(long id, long version, String firstName, String lastName, String email) {
+        int updated = write("update employees set first_name = :firstName, last_name = :lastName, email = :email, "
+                + "version = version + 1 where id = :id and version = :version")
+                .setParameter("firstName", firstName)
+                .setParameter("lastName", lastName)
+                .setParameter("email", email)
+                .setParameter("id", id)
+                .setParameter("version", version)
+                .executeUpdate();
+        evict(List.of(id));
+        return updated;
+    }
+
+    // only the non null columns of changes end up in the SET clause
+    @Override
+    @Transactional
+    public int patchEmployee(long id, Employee changes) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        if (changes.getFirstName() != null) {
+            columns.put("first_name", changes.getFirstName());
+        }
+        if (changes.getLastName() != null) {
+            columns.put("last_name", changes.getLastName());
+        }
+        if (changes.getEmail() != null) {
+            columns.put("email", changes.getEmail());
+        }
+        String assignments = columns.keySet().stream()
+                .map(column -> column + " = :" + column + ", ")
+                .collect(Collectors.joining());
+
+        NativeQuery<?> update = write("update employees set " + assignments + "version = version + 1 where id = :id")
+                .setParameter("id", id);
+        for (Map.Entry<String, String> column : columns.entrySet()) {
+            update.setParameter(column.getKey(), column.getValue());
+        }
+        int updated = update.executeUpdate();
+        evict(List.of(id));
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int deleteEmployee(long id) {
+        int deleted = write("delete from employees where id = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+        evict(List.of(id));
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    public int deleteEmployees(Collection<Long> ids) {
+        int deleted = write("delete from employees where id in (:ids)")
+                .setParameterList("ids", ids)
+                .executeUpdate();
+        evict(ids);
+        return deleted;
+    }
+
+    // a JPQL or Criteria bulk statement makes Hibernate clear the whole employee region and every cached
+    // employee query on each write. These native statements only declare EMPLOYEE_WRITES_SPACE, which no
+    // entity maps to, so the region is left alone and the written rows are evicted one by one instead.
+    private NativeQuery<?> write(String sql) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(EMPLOYEE_WRITES_SPACE);
+    }
+
+    // evicted again after completion, a reader that loaded the old row before the commit may have put it back
+    private void evict(Collection<Long> ids) {
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        List<Long> evictedIds = List.copyOf(ids);
+        Runnable eviction = () -> {
+            evictedIds.forEach(id -> cache.evictEntityData(Employee.class, id));
+            cache.evictQueryRegion(HibernateCacheConfig.EMPLOYEE_QUERY_REGION);
+        };
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsByIdGreaterThan(long id, int limit, Collection<String> fields) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = select(builder, fields);
+        Root<?> employee = query.getRoots().iterator().next();
+        query.where(builder.greaterThan(employee.<Long>get("id"), id))
+                .orderBy(builder.asc(employee.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(tuple -> toMap(tuple, fields))
+                .toList();
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(long id, Collection<String> fields) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = select(builder, fields);
+        Root<?> employee = query.getRoots().iterator().next();
+        query.where(builder.equal(employee.get("id"), id));
+
+        return entityManager.createQuery(query)
+                .getResultStream()
+                .findFirst()
+                .map(tuple -> toMap(tuple, fields));
+    }
+
+    @Override
+    public Stream<Map<String, Object>> streamFields(Collection<String> fields) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = select(builder, fields);
+        query.orderBy(builder.asc(query.getRoots().iterator().next().get("id")));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 1000);
+        return typedQuery.getResultStream().map(tuple -> toMap(tuple, fields));
+    }
+
+    // scalar tuples, nothing is hydrated into or tracked by the persistence context
+    private static CriteriaQuery<Tuple> select(CriteriaBuilder builder, Collection<String> fields) {
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Employee> employee = query.from(Employee.class);
+        query.multiselect(fields.stream()
+                .<Selection<?>>map(field -> employee.get(field).alias(field))
+                .toList());
+        return query;
+    }
+
+    private static Map<String, Object> toMap(Tuple tuple, Collection<String> fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : fields) {
+            values.put(field, tuple.get(field));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,5 @@
+package net.javaguides.spring_boot_testing.repository;
+
+// id and version only, enough to revalidate an ETag without loading the row
+public record EmployeeVersion(long id, long version) {
+}
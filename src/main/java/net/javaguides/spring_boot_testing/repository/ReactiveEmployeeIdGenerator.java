@@ -0,0 +1,100 @@
+package net.javaguides.spring_boot_testing.repository;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import net.javaguides.spring_boot_testing.model.ReactiveEmployee;
+import org.reactivestreams.Publisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.mapping.event.BeforeConvertCallback;
+import org.springframework.data.relational.core.sql.SqlIdentifier;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Assigns ids to new {@link ReactiveEmployee}s from the same employees_seq that Hibernate uses for
+ * {@link net.javaguides.spring_boot_testing.model.Employee}. Blocks of ALLOCATION_SIZE ids are reserved
+ * with the pooled-lo semantics configured in application.properties, so both stacks can insert into the
+ * table without id clashes. The caches of servlet instances do not see reactive writes, see
+ * application-reactive.properties.
+ * Blocks are reserved on their own auto-commit connection, a rolled back save must not release its block.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveEmployeeIdGenerator implements BeforeConvertCallback<ReactiveEmployee> {
+
+    static final int ALLOCATION_SIZE = 50;
+
+    private final ConnectionFactory connectionFactory;
+    private final boolean sequenceTable;
+    private final AtomicReference<IdBlock> current = new AtomicReference<>(new IdBlock(0, 0));
+
+    public ReactiveEmployeeIdGenerator(ConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+        // MySQL has no sequences, Hibernate emulates employees_seq with a single row next_val table
+        this.sequenceTable = connectionFactory.getMetadata().getName().toLowerCase(Locale.ROOT).contains("mysql");
+    }
+
+    @Override
+    public Publisher<ReactiveEmployee> onBeforeConvert(ReactiveEmployee employee, SqlIdentifier table) {
+        if (employee.getId() != null) {
+            return Mono.just(employee);
+        }
+        return nextId().map(id -> {
+            employee.setId(id);
+            return employee;
+        });
+    }
+
+    Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            long id = current.get().next();
+            if (id >= 0) {
+                return Mono.just(id);
+            }
+            // concurrent refills each reserve their own block, the loser's remainder is skipped
+            return reserveBlock().map(low -> {
+                IdBlock block = new IdBlock(low, low + ALLOCATION_SIZE);
+                long first = block.next();
+                current.set(block);
+                return first;
+            });
+        });
+    }
+
+    private Mono<Long> reserveBlock() {
+        return Mono.usingWhen(connectionFactory.create(), this::reserveBlock, Connection::close);
+    }
+
+    private Mono<Long> reserveBlock(Connection connection) {
+        if (sequenceTable) {
+            return Mono.from(connection.createStatement("update employees_seq set next_val = last_insert_id(next_val + "
+                            + ALLOCATION_SIZE + ")").execute())
+                    .flatMap(result -> Mono.from(result.getRowsUpdated()))
+                    .then(Mono.defer(() -> Mono.from(connection.createStatement("select last_insert_id()").execute())))
+                    .flatMap(result -> Mono.from(result.map((row, metadata) -> row.get(0, Long.class))))
+                    .map(high -> high - ALLOCATION_SIZE);
+        }
+        return Mono.from(connection.createStatement("select next value for employees_seq").execute())
+                .flatMap(result -> Mono.from(result.map((row, metadata) -> row.get(0, Long.class))));
+    }
+
+    private static final class IdBlock {
+
+        private final AtomicLong next;
+        private final long end;
+
+        IdBlock(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+
+        long next() {
+            long id = next.getAndIncrement();
+            return id < end ? id : -1;
+        }
+    }
+}
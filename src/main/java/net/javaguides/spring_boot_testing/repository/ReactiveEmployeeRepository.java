@@ -0,0 +1,38 @@
+package net.javaguides.spring_boot_testing.repository;
+
+import net.javaguides.spring_boot_testing.model.ReactiveEmployee;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+public interface ReactiveEmployeeRepository extends R2dbcRepository<ReactiveEmployee, Long>,
+        ReactiveEmployeeRepositoryCustom {
+
+    @Query("select * from employees where id > :id order by id limit :limit")
+    Flux<ReactiveEmployee> findByIdGreaterThanOrderByIdAsc(@Param("id") long id, @Param("limit") int limit);
+
+    // rows are pulled from the driver as the subscriber requests them
+    @Query("select * from employees order by id")
+    Flux<ReactiveEmployee> streamAll();
+
+    // emails must not be empty, "in ()" is not valid SQL
+    @Query("select email from employees where email in (:emails)")
+    Flux<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Modifying
+    @Query("update employees set first_name = :firstName, last_name = :lastName, email = :email, " +
+            "version = version + 1 where id = :id and version = :version")
+    Mono<Integer> updateIfVersionMatches(@Param("id") long id, @Param("version") long version,
+                                         @Param("firstName") String firstName, @Param("lastName") String lastName,
+                                         @Param("email") String email);
+
+    @Modifying
+    @Query("delete from employees where id = :id")
+    Mono<Integer> deleteEmployee(@Param("id") long id);
+
+}
@@ -0,0 +1,10 @@
+package net.javaguides.spring_boot_testing.repository;
+
+import net.javaguides.spring_boot_testing.model.ReactiveEmployee;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveEmployeeRepositoryCustom {
+
+    Mono<Integer> patchEmployee(long id, ReactiveEmployee changes);
+
+}
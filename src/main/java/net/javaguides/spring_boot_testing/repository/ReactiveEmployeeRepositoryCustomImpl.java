@@ -0,0 +1,44 @@
+package net.javaguides.spring_boot_testing.repository;
+
+import net.javaguides.spring_boot_testing.model.ReactiveEmployee;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class ReactiveEmployeeRepositoryCustomImpl implements ReactiveEmployeeRepositoryCustom {
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveEmployeeRepositoryCustomImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    // only the non null columns of changes end up in the SET clause
+    @Override
+    public Mono<Integer> patchEmployee(long id, ReactiveEmployee changes) {
+        Map<String, String> columns = new LinkedHashMap<>();
+        if (changes.getFirstName() != null) {
+            columns.put("first_name", changes.getFirstName());
+        }
+        if (changes.getLastName() != null) {
+            columns.put("last_name", changes.getLastName());
+        }
+        if (changes.getEmail() != null) {
+            columns.put("email", changes.getEmail());
+        }
+        String assignments = columns.keySet().stream()
+                .map(column -> column + " = :" + column + ", ")
+                .collect(Collectors.joining());
+
+        DatabaseClient.GenericExecuteSpec update = databaseClient
+                .sql("update employees set " + assignments + "version = version + 1 where id = :id")
+                .bind("id", id);
+        for (Map.Entry<String, String> column : columns.entrySet()) {
+            update = update.bind(column.getKey(), column.getValue());
+        }
+        return update.fetch().rowsUpdated().map(Long::intValue);
+    }
+}
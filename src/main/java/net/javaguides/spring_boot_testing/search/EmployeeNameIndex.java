@@ -0,0 +1,270 @@
+package net.javaguides.spring_boot_testing.search;
+
+import net.javaguides.spring_boot_testing.event.EmployeeChangedEvent;
+import net.javaguides.spring_boot_testing.model.Employee;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * In memory first/last name index for type-ahead search, so lookups never reach the database.
+ * A sorted map of normalized names answers prefix queries, a trigram inverted index over the same
+ * names answers fuzzy queries with typos. Prefix hits rank above fuzzy hits, shorter names first.
+ * Kept in sync from {@link EmployeeChangedEvent}s and filled on startup by {@link EmployeeNameIndexLoader}.
+ * A prefix matching more than {@value #MAX_PREFIX_CANDIDATES} distinct names only ranks the first
+ * {@value #MAX_PREFIX_CANDIDATES} of them in alphabetical order, a shorter name further down can be missed.
+ */
+@Component
+public class EmployeeNameIndex {
+
+    public static final int MAX_RESULTS = 100;
+
+    // bounds the work of very short prefixes such as a single letter, about a millisecond of scoring
+    static final int MAX_PREFIX_CANDIDATES = 10_000;
+    private static final double MIN_FUZZY_SIMILARITY = 0.3;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final NavigableMap<String, Set<Long>> names = new TreeMap<>();
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    private final Map<Long, Employee> employees = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // changes committed while load runs, null when no load is running
+    private List<EmployeeChangedEvent> pendingChanges;
+
+    public List<Employee> search(String query, int limit) {
+        String normalized = normalize(query);
+        int maxResults = Math.max(1, Math.min(limit, MAX_RESULTS));
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int candidates = 0;
+            for (Map.Entry<String, Set<Long>> name : names.subMap(normalized, true, normalized + Character.MAX_VALUE, false).entrySet()) {
+                double score = 1.0 + (double) normalized.length() / name.getKey().length();
+                for (Long id : name.getValue()) {
+                    scores.merge(id, score, Math::max);
+                }
+                if (++candidates == MAX_PREFIX_CANDIDATES) {
+                    break;
+                }
+            }
+            if (scores.size() < maxResults && normalized.length() >= 3) {
+                scoreFuzzy(normalized, scores);
+            }
+
+            return scores.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(entry -> fullName(employees.get(entry.getKey())))
+                            .thenComparing(Map.Entry::getKey))
+                    .limit(maxResults)
+                    .map(entry -> copyOf(employees.get(entry.getKey())))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Employee employee) {
+        lock.writeLock().lock();
+        try {
+            Employee existing = employees.get(employee.getId());
+            if (existing != null && existing.getVersion() > employee.getVersion()) {
+                return;
+            }
+            replace(copyOf(employee));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // the bulk load may have read a row before a change to it committed, so the changes committed
+    // meanwhile are held back and replayed in commit order once the load is done
+    public void load(Consumer<Consumer<Employee>> employees) {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            employees.accept(this::put);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                List<EmployeeChangedEvent> changes = pendingChanges;
+                pendingChanges = null;
+                changes.forEach(this::apply);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeNames(employees.remove(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return employees.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // also runs for writes outside a transaction such as saveAndFlush
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmployeeChanged(EmployeeChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.add(event);
+            } else {
+                apply(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // callers hold the write lock
+    private void apply(EmployeeChangedEvent event) {
+        if (event.isDeleted()) {
+            removeNames(employees.remove(event.getId()));
+            return;
+        }
+        Employee changes = event.getEmployee();
+        Employee existing = employees.get(event.getId());
+        if (existing == null) {
+            if (changes.getFirstName() == null || changes.getLastName() == null) {
+                return;
+            }
+            existing = new Employee();
+        }
+        Employee merged = Employee.builder()
+                .id(event.getId())
+                .firstName(changes.getFirstName() != null ? changes.getFirstName() : existing.getFirstName())
+                .lastName(changes.getLastName() != null ? changes.getLastName() : existing.getLastName())
+                .email(changes.getEmail() != null ? changes.getEmail() : existing.getEmail())
+                .version(Math.max(changes.getVersion(), existing.getVersion()))
+                .build();
+        replace(merged);
+    }
+
+    private void scoreFuzzy(String query, Map<Long, Double> scores) {
+        Set<String> queryTrigrams = trigramsOf(query);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (String name : trigrams.getOrDefault(trigram, Set.of())) {
+                shared.merge(name, 1, Integer::sum);
+            }
+        }
+        for (Map.Entry<String, Integer> name : shared.entrySet()) {
+            // Dice coefficient, a padded name of length n has n trigrams
+            double similarity = 2.0 * name.getValue() / (query.length() + name.getKey().length());
+            if (similarity >= MIN_FUZZY_SIMILARITY) {
+                for (Long id : names.get(name.getKey())) {
+                    scores.merge(id, similarity, Math::max);
+                }
+            }
+        }
+    }
+
+    private void replace(Employee employee) {
+        removeNames(employees.put(employee.getId(), employee));
+        addNames(employee);
+    }
+
+    private void addNames(Employee employee) {
+        for (String name : namesOf(employee)) {
+            Set<Long> ids = names.computeIfAbsent(name, key -> new HashSet<>());
+            if (ids.add(employee.getId()) && ids.size() == 1 && name.indexOf(' ') < 0) {
+                for (String trigram : trigramsOf(name)) {
+                    trigrams.computeIfAbsent(trigram, key -> new HashSet<>()).add(name);
+                }
+            }
+        }
+    }
+
+    private void removeNames(Employee employee) {
+        if (employee == null) {
+            return;
+        }
+        for (String name : namesOf(employee)) {
+            Set<Long> ids = names.get(name);
+            if (ids == null || !ids.remove(employee.getId()) || !ids.isEmpty()) {
+                continue;
+            }
+            names.remove(name);
+            for (String trigram : trigramsOf(name)) {
+                Set<String> trigramNames = trigrams.get(trigram);
+                if (trigramNames != null && trigramNames.remove(name) && trigramNames.isEmpty()) {
+                    trigrams.remove(trigram);
+                }
+            }
+        }
+    }
+
+    // first name, last name and "first last", only the single word names are fuzzy matched
+    private static Set<String> namesOf(Employee employee) {
+        Set<String> names = new LinkedHashSet<>();
+        String firstName = normalize(employee.getFirstName());
+        String lastName = normalize(employee.getLastName());
+        if (!firstName.isEmpty()) {
+            names.add(firstName);
+        }
+        if (!lastName.isEmpty()) {
+            names.add(lastName);
+        }
+        if (!firstName.isEmpty() && !lastName.isEmpty()) {
+            names.add(firstName + " " + lastName);
+        }
+        return names;
+    }
+
+    private static Set<String> trigramsOf(String name) {
+        String padded = "$" + name + "$";
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(name.trim(), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
+    private static String fullName(Employee employee) {
+        return employee.getFirstName() + " " + employee.getLastName();
+    }
+
+    private static Employee copyOf(Employee employee) {
+        return Employee.builder()
+                .id(employee.getId())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .email(employee.getEmail())
+                .version(employee.getVersion())
+                .build();
+    }
+}
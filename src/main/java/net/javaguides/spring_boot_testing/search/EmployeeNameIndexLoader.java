@@ -0,0 +1,30 @@
+package net.javaguides.spring_boot_testing.search;
+
+import lombok.extern.slf4j.Slf4j;
+import net.javaguides.spring_boot_testing.services.EmployeeService;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// streams the employees table into the name index once the application is up, see EmployeeNameIndex.load
+@Slf4j
+@Component
+@Profile("!reactive")
+public class EmployeeNameIndexLoader {
+
+    private final EmployeeService employeeService;
+    private final EmployeeNameIndex employeeNameIndex;
+
+    public EmployeeNameIndexLoader(EmployeeService employeeService, EmployeeNameIndex employeeNameIndex) {
+        this.employeeService = employeeService;
+        this.employeeNameIndex = employeeNameIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        employeeNameIndex.load(employeeService::exportEmployees);
+        log.info("Indexed {} employee names in {} ms", employeeNameIndex.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
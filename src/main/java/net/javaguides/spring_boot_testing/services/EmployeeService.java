@@ -1,15 +1,38 @@
 package net.javaguides.spring_boot_testing.services;
 
 import net.javaguides.spring_boot_testing.model.Employee;
+import net.javaguides.spring_boot_testing.repository.EmployeeVersion;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface EmployeeService {
+    int MAX_PAGE_SIZE = 1000;
+    // ids per DELETE ... WHERE id IN statement of deleteEmployees
+    int DELETE_CHUNK_SIZE = 1000;
+    // attributes that can be requested with ?fields=, id is always returned
+    Set<String> PROJECTABLE_FIELDS = Set.of("id", "firstName", "lastName", "email", "version");
+
     Employee saveEmployee(Employee employee);
+    List<Employee> saveEmployees(List<Employee> employees);
+    List<String> getExistingEmails(Collection<String> emails);
     List<Employee> getAllEmployees();
+    List<Employee> getEmployeesAfter(long afterId, int limit);
+    void exportEmployees(Consumer<Employee> consumer);
+    List<Map<String, Object>> getEmployeeFieldsAfter(long afterId, int limit, Collection<String> fields);
+    Optional<Map<String, Object>> getEmployeeFieldsById(Long id, Collection<String> fields);
+    void exportEmployeeFields(Collection<String> fields, Consumer<Map<String, Object>> consumer);
+    List<Employee> searchEmployees(String query, int limit);
     Optional<Employee> getEmployeeById(Long id);
+    Optional<EmployeeVersion> getEmployeeVersion(long id);
+    List<EmployeeVersion> getEmployeeVersionsAfter(long afterId, int limit);
     Employee updateEmployee(Employee employee);
+    void patchEmployee(long id, Employee changes);
     void deleteEmployee(Long id);
+    int deleteEmployees(Collection<Long> ids);
 
 }
@@ -0,0 +1,20 @@
+package net.javaguides.spring_boot_testing.services;
+
+import net.javaguides.spring_boot_testing.model.ReactiveEmployee;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ReactiveEmployeeService {
+
+    Mono<ReactiveEmployee> saveEmployee(ReactiveEmployee employee);
+    Flux<ReactiveEmployee> saveEmployees(List<ReactiveEmployee> employees);
+    Flux<ReactiveEmployee> getEmployeesAfter(long afterId, int limit);
+    Flux<ReactiveEmployee> exportEmployees();
+    Mono<ReactiveEmployee> getEmployeeById(long id);
+    Mono<ReactiveEmployee> updateEmployee(ReactiveEmployee employee);
+    Mono<Void> patchEmployee(long id, ReactiveEmployee changes);
+    Mono<Void> deleteEmployee(long id);
+
+}
@@ -1,51 +1,299 @@
 package net.javaguides.spring_boot_testing.services.impl;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import net.javaguides.spring_boot_testing.config.CacheConfig;
+import net.javaguides.spring_boot_testing.event.EmployeeChangedEvent;
+import net.javaguides.spring_boot_testing.exception.InvalidRequestException;
+import net.javaguides.spring_boot_testing.exception.ResourceConflictException;
 import net.javaguides.spring_boot_testing.exception.ResourceNotFoundException;
 import net.javaguides.spring_boot_testing.model.Employee;
+import net.javaguides.spring_boot_testing.repository.EmployeeConstraints;
 import net.javaguides.spring_boot_testing.repository.EmployeeRepository;
+import net.javaguides.spring_boot_testing.repository.EmployeeVersion;
+import net.javaguides.spring_boot_testing.search.EmployeeNameIndex;
 import net.javaguides.spring_boot_testing.services.EmployeeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
+@Profile("!reactive")
+@Timed(value = "employee.service", histogram = true)
 public class EmployeeServiceImpl implements EmployeeService {
 
     private EmployeeRepository employeeRepository;
+    private EntityManager entityManager;
+    private MeterRegistry meterRegistry;
+    private ApplicationEventPublisher eventPublisher;
+    private EmployeeNameIndex employeeNameIndex;
+
     @Override
+    @Transactional
+    @CachePut(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#result.id")
     public Employee saveEmployee(Employee employee) {
 
-        Optional<Employee> saveEmployee = employeeRepository.findByEmail(employee.getEmail());
-        if (saveEmployee.isPresent()) {
-            throw  new ResourceNotFoundException("Employee " + employee.getEmail() + " already exists");
+        // uk_employees_email decides uniqueness, a pre-check SELECT would cost a round trip and still race
+        Employee savedEmployee;
+        try {
+            savedEmployee = employeeRepository.saveAndFlush(employee);
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e, "Employee " + employee.getEmail() + " already exists");
         }
-        return employeeRepository.save(employee);
+        publishChanged(EmployeeChangedEvent.Type.CREATED, savedEmployee.getId(), savedEmployee);
+        return savedEmployee;
     }
 
     @Override
+    @Transactional
+    public List<Employee> saveEmployees(List<Employee> employees) {
+
+        Set<String> emails = new HashSet<>();
+        for (Employee employee : employees) {
+            if (!emails.add(employee.getEmail())) {
+                throw duplicateEmail("Employee " + employee.getEmail() + " is duplicated in the batch", null);
+            }
+        }
+        List<String> existingEmails = employeeRepository.findExistingEmails(emails);
+        if (!existingEmails.isEmpty()) {
+            throw duplicateEmail("Employees " + existingEmails + " already exist", null);
+        }
+        List<Employee> savedEmployees;
+        try {
+            savedEmployees = employeeRepository.saveAllAndFlush(employees);
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e, "Employee batch conflicts with existing employees");
+        }
+        savedEmployees.forEach(savedEmployee -> publishChanged(EmployeeChangedEvent.Type.CREATED, savedEmployee.getId(), savedEmployee));
+        return savedEmployees;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<String> getExistingEmails(Collection<String> emails) {
+        return emails.isEmpty() ? List.of() : employeeRepository.findExistingEmails(emails);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<Employee> getAllEmployees() {
-        return employeeRepository.findAll();
+        return getEmployeesAfter(0L, MAX_PAGE_SIZE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Employee> getEmployeesAfter(long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public void exportEmployees(Consumer<Employee> consumer) {
+        try (Stream<Employee> employees = employeeRepository.streamAll()) {
+            employees.forEach(employee -> {
+                consumer.accept(employee);
+                entityManager.detach(employee);
+            });
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getEmployeeFieldsAfter(long afterId, int limit, Collection<String> fields) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return employeeRepository.findFieldsByIdGreaterThan(afterId, pageSize, projection(fields));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Map<String, Object>> getEmployeeFieldsById(Long id, Collection<String> fields) {
+        Optional<Map<String, Object>> employee = employeeRepository.findFieldsById(id, projection(fields));
+        if (employee.isEmpty()) {
+            countNotFound("getEmployeeFieldsById");
+        }
+        return employee;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportEmployeeFields(Collection<String> fields, Consumer<Map<String, Object>> consumer) {
+        try (Stream<Map<String, Object>> employees = employeeRepository.streamFields(projection(fields))) {
+            employees.forEach(consumer);
+        }
+    }
+
+    @Override
+    public List<Employee> searchEmployees(String query, int limit) {
+        return employeeNameIndex.search(query, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id", unless = "#result == null")
     public Optional<Employee> getEmployeeById(Long id) {
-        return employeeRepository.findById(id);
+        Optional<Employee> employee = employeeRepository.findById(id);
+        if (employee.isEmpty()) {
+            countNotFound("getEmployeeById");
+        }
+        return employee;
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Optional<EmployeeVersion> getEmployeeVersion(long id) {
+        return employeeRepository.findVersionById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<EmployeeVersion> getEmployeeVersionsAfter(long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return employeeRepository.findVersionsByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize));
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#updateEmployee.id")
     public Employee updateEmployee(Employee updateEmployee) {
-        return employeeRepository.save(updateEmployee);
+        int updated;
+        try {
+            updated = employeeRepository.updateIfVersionMatches(updateEmployee.getId(), updateEmployee.getVersion(),
+                    updateEmployee.getFirstName(), updateEmployee.getLastName(), updateEmployee.getEmail());
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e, "Employee " + updateEmployee.getEmail() + " already exists");
+        }
+        if (updated == 0) {
+            if (!employeeRepository.existsById(updateEmployee.getId())) {
+                throw notFound("updateEmployee", updateEmployee.getId());
+            }
+            throw new ResourceConflictException("Employee " + updateEmployee.getId() + " was modified, version "
+                    + updateEmployee.getVersion() + " is stale");
+        }
+        updateEmployee.setVersion(updateEmployee.getVersion() + 1);
+        publishChanged(EmployeeChangedEvent.Type.UPDATED, updateEmployee.getId(), updateEmployee);
+        return updateEmployee;
     }
 
     @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
+    public void patchEmployee(long id, Employee changes) {
+        if (changes.getFirstName() == null && changes.getLastName() == null && changes.getEmail() == null) {
+            if (!employeeRepository.existsById(id)) {
+                throw notFound("patchEmployee", id);
+            }
+            return;
+        }
+        int updated;
+        try {
+            updated = employeeRepository.patchEmployee(id, changes);
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e, "Employee " + changes.getEmail() + " already exists");
+        }
+        if (updated == 0) {
+            throw notFound("patchEmployee", id);
+        }
+        // subscribers get the row as it now stands, not the sparse body
+        Employee patched = employeeRepository.findCurrentById(id)
+                .orElseThrow(() -> notFound("patchEmployee", id));
+        publishChanged(EmployeeChangedEvent.Type.UPDATED, id, patched);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, key = "#id")
     public void deleteEmployee(Long id) {
-        employeeRepository.deleteById(id);
+        if (employeeRepository.deleteEmployee(id) == 0) {
+            throw notFound("deleteEmployee", id);
+        }
+        publishChanged(EmployeeChangedEvent.Type.DELETED, id, null);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.EMPLOYEES_CACHE, allEntries = true)
+    public int deleteEmployees(Collection<Long> ids) {
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += DELETE_CHUNK_SIZE) {
+            // missing or already deleted ids get no DELETED event. MySQL has no DELETE ... RETURNING, so the
+            // locking select is what names the deleted rows, one extra round trip per chunk of ids
+            List<Long> existingIds = employeeRepository.lockExistingIds(
+                    distinctIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, distinctIds.size())));
+            if (existingIds.isEmpty()) {
+                continue;
+            }
+            deleted += employeeRepository.deleteEmployees(existingIds);
+            for (Long id : existingIds) {
+                publishChanged(EmployeeChangedEvent.Type.DELETED, id, null);
+            }
+        }
+        return deleted;
     }
 
     @Autowired
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository) {
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EntityManager entityManager,
+                               MeterRegistry meterRegistry, ApplicationEventPublisher eventPublisher,
+                               EmployeeNameIndex employeeNameIndex) {
         this.employeeRepository = employeeRepository;
+        this.entityManager = entityManager;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.employeeNameIndex = employeeNameIndex;
+    }
+
+    // EmployeeChangeOutbox records it in the surrounding transaction, EmployeeNameIndex applies it after commit
+    private void publishChanged(EmployeeChangedEvent.Type type, long id, Employee employee) {
+        eventPublisher.publishEvent(new EmployeeChangedEvent(type, id, employee));
+    }
+
+    private static Set<String> projection(Collection<String> fields) {
+        Set<String> projection = new LinkedHashSet<>();
+        projection.add("id");
+        for (String field : fields) {
+            if (!PROJECTABLE_FIELDS.contains(field)) {
+                throw new InvalidRequestException("Unknown employee field " + field + ", expected one of " + PROJECTABLE_FIELDS);
+            }
+            projection.add(field);
+        }
+        return projection;
+    }
+
+    // only uk_employees_email is a 409, any other integrity violation is rethrown as is
+    private RuntimeException translate(DataIntegrityViolationException e, String duplicateMessage) {
+        return EmployeeConstraints.isDuplicateEmail(e) ? duplicateEmail(duplicateMessage, e) : e;
+    }
+
+    private ResourceConflictException duplicateEmail(String message, Throwable cause) {
+        meterRegistry.counter("employee.duplicate.email.rejections").increment();
+        return new ResourceConflictException(message, cause);
+    }
+
+    private ResourceNotFoundException notFound(String operation, long id) {
+        countNotFound(operation);
+        return new ResourceNotFoundException("Employee " + id + " not found");
+    }
+
+    private void countNotFound(String operation) {
+        meterRegistry.counter("employee.not.found", "operation", operation).increment();
     }
 }
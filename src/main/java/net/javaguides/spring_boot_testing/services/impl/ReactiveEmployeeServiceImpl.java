@@ -0,0 +1,136 @@
+package net.javaguides.spring_boot_testing.services.impl;
+
+import net.javaguides.spring_boot_testing.event.EmployeeChangedEvent;
+import net.javaguides.spring_boot_testing.event.ReactiveEmployeeChangeOutbox;
+import net.javaguides.spring_boot_testing.exception.ResourceConflictException;
+import net.javaguides.spring_boot_testing.exception.ResourceNotFoundException;
+import net.javaguides.spring_boot_testing.model.ReactiveEmployee;
+import net.javaguides.spring_boot_testing.repository.EmployeeConstraints;
+import net.javaguides.spring_boot_testing.repository.ReactiveEmployeeRepository;
+import net.javaguides.spring_boot_testing.services.EmployeeService;
+import net.javaguides.spring_boot_testing.services.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// every write records its employee_changes row in the same transaction, see ReactiveEmployeeChangeOutbox.
+// The Spring and Hibernate caches and the name index of servlet instances on the same database do not
+// see these writes, see application-reactive.properties.
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService {
+
+    private ReactiveEmployeeRepository employeeRepository;
+    private ReactiveEmployeeChangeOutbox changeOutbox;
+
+    public ReactiveEmployeeServiceImpl(ReactiveEmployeeRepository employeeRepository,
+                                       ReactiveEmployeeChangeOutbox changeOutbox) {
+        this.employeeRepository = employeeRepository;
+        this.changeOutbox = changeOutbox;
+    }
+
+    @Override
+    @Transactional
+    public Mono<ReactiveEmployee> saveEmployee(ReactiveEmployee employee) {
+        return employeeRepository.save(employee)
+                .flatMap(saved -> changeOutbox.record(EmployeeChangedEvent.Type.CREATED, saved.getId(), saved)
+                        .thenReturn(saved))
+                .onErrorMap(EmployeeConstraints::isDuplicateEmail,
+                        e -> new ResourceConflictException("Employee " + employee.getEmail() + " already exists", e));
+    }
+
+    @Override
+    @Transactional
+    public Flux<ReactiveEmployee> saveEmployees(List<ReactiveEmployee> employees) {
+        Set<String> emails = new HashSet<>();
+        for (ReactiveEmployee employee : employees) {
+            if (!emails.add(employee.getEmail())) {
+                return Flux.error(new ResourceConflictException("Employee " + employee.getEmail()
+                        + " is duplicated in the batch"));
+            }
+        }
+        if (employees.isEmpty()) {
+            return Flux.empty();
+        }
+        return employeeRepository.findExistingEmails(emails).collectList()
+                .flatMapMany(existingEmails -> existingEmails.isEmpty()
+                        ? employeeRepository.saveAll(employees).collectList()
+                                .flatMapMany(saved -> changeOutbox.recordCreated(saved).thenMany(Flux.fromIterable(saved)))
+                        : Flux.error(new ResourceConflictException("Employees " + existingEmails + " already exist")))
+                .onErrorMap(EmployeeConstraints::isDuplicateEmail,
+                        e -> new ResourceConflictException("Employee batch conflicts with existing employees", e));
+    }
+
+    @Override
+    public Flux<ReactiveEmployee> getEmployeesAfter(long afterId, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, EmployeeService.MAX_PAGE_SIZE));
+        return employeeRepository.findByIdGreaterThanOrderByIdAsc(afterId, pageSize);
+    }
+
+    @Override
+    public Flux<ReactiveEmployee> exportEmployees() {
+        return employeeRepository.streamAll();
+    }
+
+    @Override
+    public Mono<ReactiveEmployee> getEmployeeById(long id) {
+        return employeeRepository.findById(id);
+    }
+
+    @Override
+    @Transactional
+    public Mono<ReactiveEmployee> updateEmployee(ReactiveEmployee updateEmployee) {
+        long id = updateEmployee.getId();
+        long version = updateEmployee.getVersion() == null ? 0L : updateEmployee.getVersion();
+        return employeeRepository.updateIfVersionMatches(id, version,
+                        updateEmployee.getFirstName(), updateEmployee.getLastName(), updateEmployee.getEmail())
+                .onErrorMap(EmployeeConstraints::isDuplicateEmail,
+                        e -> new ResourceConflictException("Employee " + updateEmployee.getEmail() + " already exists", e))
+                .flatMap(updated -> {
+                    if (updated > 0) {
+                        updateEmployee.setVersion(version + 1);
+                        return changeOutbox.record(EmployeeChangedEvent.Type.UPDATED, id, updateEmployee)
+                                .thenReturn(updateEmployee);
+                    }
+                    return employeeRepository.existsById(id).flatMap(exists -> Mono.error(exists
+                            ? new ResourceConflictException("Employee " + id + " was modified, version " + version + " is stale")
+                            : notFound(id)));
+                });
+    }
+
+    @Override
+    @Transactional
+    public Mono<Void> patchEmployee(long id, ReactiveEmployee changes) {
+        if (changes.getFirstName() == null && changes.getLastName() == null && changes.getEmail() == null) {
+            return employeeRepository.existsById(id)
+                    .flatMap(found -> found ? Mono.<Void>empty() : Mono.error(notFound(id)));
+        }
+        return employeeRepository.patchEmployee(id, changes)
+                .onErrorMap(EmployeeConstraints::isDuplicateEmail,
+                        e -> new ResourceConflictException("Employee " + changes.getEmail() + " already exists", e))
+                .flatMap(updated -> updated > 0
+                        // subscribers get the row as it now stands, not the sparse body
+                        ? employeeRepository.findById(id)
+                                .flatMap(employee -> changeOutbox.record(EmployeeChangedEvent.Type.UPDATED, id, employee))
+                        : Mono.error(notFound(id)));
+    }
+
+    @Override
+    @Transactional
+    public Mono<Void> deleteEmployee(long id) {
+        return employeeRepository.deleteEmployee(id)
+                .flatMap(deleted -> deleted > 0
+                        ? changeOutbox.record(EmployeeChangedEvent.Type.DELETED, id, null)
+                        : Mono.error(notFound(id)));
+    }
+
+    private ResourceNotFoundException notFound(long id) {
+        return new ResourceNotFoundException("Employee " + id + " not found");
+    }
+}
@@ -0,0 +1,15 @@
+-- H2 twin of db/migration/mysql/V1__create_employees.sql for tests and benchmarks
+
+create table if not exists employees (
+    id         bigint       not null,
+    email      varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name  varchar(255) not null,
+    version    bigint       not null,
+    primary key (id),
+    constraint uk_employees_email unique (email)
+);
+
+create sequence if not exists employees_seq start with 1 increment by 50;
+
+create index if not exists idx_employees_first_name_last_name on employees (first_name, last_name);
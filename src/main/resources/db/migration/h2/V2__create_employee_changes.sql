@@ -0,0 +1,12 @@
+-- H2 twin of db/migration/mysql/V2__create_employee_changes.sql for tests and benchmarks
+
+create table if not exists employee_changes (
+    id          bigint        generated by default as identity,
+    type        varchar(16)   not null,
+    employee_id bigint        not null,
+    employee    varchar(2000) not null,
+    created_at  timestamp(3)  default current_timestamp(3) not null,
+    primary key (id)
+);
+
+create index if not exists idx_employee_changes_created_at on employee_changes (created_at);
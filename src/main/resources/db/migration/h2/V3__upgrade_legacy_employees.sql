@@ -0,0 +1,5 @@
+-- H2 twin of db/migration/mysql/V3__upgrade_legacy_employees.sql for tests and benchmarks
+
+alter table employees add column if not exists version bigint default 0 not null;
+
+alter table employees add constraint if not exists uk_employees_email unique (email);
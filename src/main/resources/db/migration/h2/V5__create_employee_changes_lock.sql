@@ -0,0 +1,8 @@
+-- H2 twin of db/migration/mysql/V5__create_employee_changes_lock.sql for tests and benchmarks
+
+create table if not exists employee_changes_lock (
+    id int not null,
+    primary key (id)
+);
+
+merge into employee_changes_lock (id) key (id) values (1);
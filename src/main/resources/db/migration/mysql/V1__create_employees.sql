@@ -0,0 +1,35 @@
+-- creates the employees schema. On a schema left by the former ddl-auto=update the tables already
+-- exist and are skipped, V3__upgrade_legacy_employees adds the columns and constraints they lack
+
+create table if not exists employees (
+    id         bigint       not null,
+    email      varchar(255) not null,
+    first_name varchar(255) not null,
+    last_name  varchar(255) not null,
+    version    bigint       not null,
+    primary key (id),
+    constraint uk_employees_email unique (email)
+) engine = InnoDB;
+
+-- Hibernate emulates the employees_seq sequence with a single row table, next_val is the next free id
+create table if not exists employees_seq (
+    next_val bigint
+) engine = InnoDB;
+
+insert into employees_seq (next_val)
+select coalesce(max(id), 0) + 1 from employees
+where not exists (select 1 from employees_seq);
+
+-- findByJPQL, findByJPQLNameParams, findByNativeSQL and findByNativeSQLNameParams filter on both columns.
+-- MySQL has no create index if not exists, the statement is only run when the index is missing
+set @create_index = (
+    select if(count(*) = 0,
+              'create index idx_employees_first_name_last_name on employees (first_name, last_name)',
+              'do 0')
+    from information_schema.statistics
+    where table_schema = database()
+      and table_name = 'employees'
+      and index_name = 'idx_employees_first_name_last_name');
+prepare create_index from @create_index;
+execute create_index;
+deallocate prepare create_index;
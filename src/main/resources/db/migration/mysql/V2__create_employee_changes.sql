@@ -0,0 +1,14 @@
+-- transactional outbox of employee writes, relayed to GET /api/employees/changes by EmployeeChangeFeed.
+-- id is the SSE event id, employee is the JSON of the written columns and only the id for deletes
+
+create table if not exists employee_changes (
+    id          bigint        not null auto_increment,
+    type        varchar(16)   not null,
+    employee_id bigint        not null,
+    employee    varchar(2000) not null,
+    created_at  timestamp(3)  not null default current_timestamp(3),
+    primary key (id)
+) engine = InnoDB;
+
+-- retention deletes by age
+create index idx_employee_changes_created_at on employee_changes (created_at);
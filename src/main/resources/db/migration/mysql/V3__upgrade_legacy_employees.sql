@@ -0,0 +1,28 @@
+-- brings an employees table created by the former ddl-auto=update up to what V1 creates, V1 skips
+-- an existing table. Each statement only runs when its column or constraint is missing, so on a
+-- schema created by V1 this migration does nothing. Adding uk_employees_email fails while the
+-- legacy table still holds duplicate emails, those have to be resolved by hand first.
+
+set @add_version = (
+    select if(count(*) = 0,
+              'alter table employees add column version bigint not null default 0',
+              'do 0')
+    from information_schema.columns
+    where table_schema = database()
+      and table_name = 'employees'
+      and column_name = 'version');
+prepare add_version from @add_version;
+execute add_version;
+deallocate prepare add_version;
+
+set @add_unique_email = (
+    select if(count(*) = 0,
+              'alter table employees add constraint uk_employees_email unique (email)',
+              'do 0')
+    from information_schema.table_constraints
+    where table_schema = database()
+      and table_name = 'employees'
+      and constraint_name = 'uk_employees_email');
+prepare add_unique_email from @add_unique_email;
+execute add_unique_email;
+deallocate prepare add_unique_email;
@@ -0,0 +1,7 @@
+-- while ddl-auto=update was still on, Hibernate created employees_seq starting at 1 next to an
+-- employees table whose ids came from auto_increment, so V1 found a row and left it too low.
+-- Moving next_val past max(id) stops new blocks from reusing existing ids, it is a no-op otherwise.
+-- H2 schemas are always created by V1, which seeds the sequence from max(id), so there is no H2 twin.
+
+update employees_seq
+set next_val = greatest(coalesce(next_val, 0), (select coalesce(max(id), 0) + 1 from employees));
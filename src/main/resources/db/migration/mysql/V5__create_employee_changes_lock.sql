@@ -0,0 +1,11 @@
+-- single row locked by EmployeeChangeOutbox from its insert until commit, so outbox ids are taken
+-- in commit order and a visible id means every lower id has committed or rolled back for good
+
+create table if not exists employee_changes_lock (
+    id int not null,
+    primary key (id)
+) engine = InnoDB;
+
+insert into employee_changes_lock (id)
+select 1 from dual
+where not exists (select 1 from employee_changes_lock where id = 1);
@@ -0,0 +1,65 @@
+package net.javaguides.spring_boot_testing.config;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class ConnectionLimitingDataSourceTest {
+
+    @Mock
+    private DataSource targetDataSource;
+
+    @Mock
+    private Connection connection;
+
+    private ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        given(targetDataSource.getConnection()).willReturn(connection);
+        dataSource = new ConnectionLimitingDataSource(targetDataSource, 1, 50);
+    }
+
+    //JUnit test for getConnection when all permits are taken
+    @Test
+    @DisplayName("JUnit test for getConnection when all permits are taken")
+    public void givenPermitInUse_whenGetConnection_thenTimeOut() throws Exception {
+        //Given - precondition or setup
+        Connection inUse = dataSource.getConnection();
+        //When - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(SQLTransientConnectionException.class, () -> {
+            dataSource.getConnection();
+        });
+        //Then - verify the output
+        Assertions.assertThat(inUse).isNotNull();
+        Assertions.assertThat(dataSource.getAvailablePermits()).isZero();
+    }
+
+    @Test
+    @DisplayName("JUnit test for getConnection after the connection is closed")
+    public void givenClosedConnection_whenGetConnection_thenReusePermit() throws Exception {
+        //Given - precondition or setup
+        Connection first = dataSource.getConnection();
+        first.close();
+        first.close();
+        //When - action or the behaviour that we are going to test
+        Connection second = dataSource.getConnection();
+        //Then - verify the output
+        Assertions.assertThat(second).isNotNull();
+        Assertions.assertThat(dataSource.getAvailablePermits()).isZero();
+        verify(connection, times(2)).close();
+    }
+}
@@ -0,0 +1,121 @@
+package net.javaguides.spring_boot_testing.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readTransaction;
+    private TransactionTemplate writeTransaction;
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingDataSource.clearClient();
+        routingDataSource.close();
+    }
+
+    //JUnit test for round-robin replica selection
+    @Test
+    @DisplayName("JUnit test for round-robin replica selection")
+    public void givenReadOnlyTransactions_whenRoundRobin_thenAlternateReplicas() {
+        //Given - precondition or setup
+        setUp(ReplicaRoutingDataSource.ReplicaSelection.ROUND_ROBIN, Duration.ofSeconds(5));
+        //When - action or the behaviour that we are going to test
+        String first = readTransaction.execute(status -> database());
+        String second = readTransaction.execute(status -> database());
+        String third = readTransaction.execute(status -> database());
+        //Then - verify the output
+        Assertions.assertThat(first).isEqualTo("replica-1");
+        Assertions.assertThat(second).isEqualTo("replica-2");
+        Assertions.assertThat(third).isEqualTo("replica-1");
+    }
+
+    //JUnit test for routing writes to the primary
+    @Test
+    @DisplayName("JUnit test for routing writes to the primary")
+    public void givenReadWriteTransaction_whenGetConnection_thenUsePrimary() {
+        //Given - precondition or setup
+        setUp(ReplicaRoutingDataSource.ReplicaSelection.ROUND_ROBIN, Duration.ofSeconds(5));
+        //When - action or the behaviour that we are going to test
+        String database = writeTransaction.execute(status -> database());
+        //Then - verify the output
+        Assertions.assertThat(database).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    //JUnit test for least-connections replica selection
+    @Test
+    @DisplayName("JUnit test for least-connections replica selection")
+    public void givenBusyReplica_whenLeastConnections_thenUseIdleReplica() throws Exception {
+        //Given - precondition or setup
+        setUp(ReplicaRoutingDataSource.ReplicaSelection.LEAST_CONNECTIONS, Duration.ofSeconds(5));
+        String database;
+        try (Connection busy = ((HikariDataSource) routingDataSource.getResolvedDataSources().get("replica-1")).getConnection()) {
+            //When - action or the behaviour that we are going to test
+            database = readTransaction.execute(status -> database());
+        }
+        //Then - verify the output
+        Assertions.assertThat(database).isEqualTo("replica-2");
+    }
+
+    //JUnit test for read-your-writes stickiness
+    @Test
+    @DisplayName("JUnit test for read-your-writes stickiness")
+    public void givenClientWrote_whenReadWithinWindow_thenUsePrimaryUntilWindowEnds() throws Exception {
+        //Given - precondition or setup
+        setUp(ReplicaRoutingDataSource.ReplicaSelection.ROUND_ROBIN, Duration.ofMillis(200));
+        ReplicaRoutingDataSource.setClient("client-a");
+        writeTransaction.execute(status -> database());
+        //When - action or the behaviour that we are going to test
+        String ownRead = readTransaction.execute(status -> database());
+        ReplicaRoutingDataSource.setClient("client-b");
+        String otherRead = readTransaction.execute(status -> database());
+        ReplicaRoutingDataSource.setClient("client-a");
+        Thread.sleep(300);
+        String laterRead = readTransaction.execute(status -> database());
+        //Then - verify the output
+        Assertions.assertThat(ownRead).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        Assertions.assertThat(otherRead).startsWith("replica-");
+        Assertions.assertThat(laterRead).startsWith("replica-");
+    }
+
+    private void setUp(ReplicaRoutingDataSource.ReplicaSelection replicaSelection, Duration readYourWritesWindow) {
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", pool("replica-1"));
+        replicas.put("replica-2", pool("replica-2"));
+        routingDataSource = new ReplicaRoutingDataSource(pool(ReplicaRoutingDataSource.PRIMARY), replicas,
+                replicaSelection, readYourWritesWindow);
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readTransaction = new TransactionTemplate(transactionManager);
+        readTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    private String database() {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getCatalog().toLowerCase());
+    }
+
+    private static HikariDataSource pool(String name) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        pool.setMaximumPoolSize(2);
+        return pool;
+    }
+}
@@ -0,0 +1,72 @@
+package net.javaguides.spring_boot_testing.config;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// replica routing together with the settings of application-virtual-threads.properties
+public class ReplicaRoutingVirtualThreadsTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class))
+            .withUserConfiguration(ReplicaRoutingConfig.class, VirtualThreadConfig.class, VirtualThreadRequirementConfig.class)
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+                    "spring.datasource.hikari.maximum-pool-size=4",
+                    "employees.datasource.routing.enabled=true",
+                    "employees.datasource.routing.replicas.replica-1.jdbc-url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+                    "employees.datasource.routing.replicas.replica-1.maximum-pool-size=2",
+                    "spring.threads.virtual.enabled=true",
+                    "employees.datasource.max-concurrent-connections=20");
+
+    //JUnit test for replica routing in virtual thread mode
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    @DisplayName("JUnit test for replica routing in virtual thread mode")
+    public void givenRoutingAndVirtualThreads_whenContextStarts_thenGateEveryPoolOnce() {
+        contextRunner.run(context -> {
+            //Then - verify the output
+            Assertions.assertThat(context).hasNotFailed();
+            Assertions.assertThat(context.getBean(DataSource.class)).isInstanceOf(LazyConnectionDataSourceProxy.class);
+            ReplicaRoutingDataSource routing = context.getBean(ReplicaRoutingDataSource.class);
+            Assertions.assertThat(routing.getResolvedDataSources().values())
+                    .hasSize(2)
+                    .allSatisfy(pool -> Assertions.assertThat(pool).isInstanceOf(ConnectionLimitingDataSource.class));
+            Assertions.assertThat(new JdbcTemplate(context.getBean(DataSource.class)).queryForObject("select 1", Integer.class))
+                    .isEqualTo(1);
+        });
+    }
+
+    //JUnit test for virtual thread mode before Java 21
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_20)
+    @DisplayName("JUnit test for virtual thread mode before Java 21")
+    public void givenVirtualThreadsBeforeJava21_whenContextStarts_thenFail() {
+        contextRunner.run(context -> {
+            //Then - verify the output
+            Assertions.assertThat(context).hasFailed();
+            Assertions.assertThat(context.getStartupFailure()).hasStackTraceContaining("needs Java 21+");
+        });
+    }
+
+    //JUnit test for replica routing without virtual threads
+    @Test
+    @DisplayName("JUnit test for replica routing without virtual threads")
+    public void givenRoutingOnPlatformThreads_whenContextStarts_thenLeavePoolsUngated() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=false").run(context -> {
+            //Then - verify the output
+            Assertions.assertThat(context).hasNotFailed();
+            Assertions.assertThat(context.getBean(ReplicaRoutingDataSource.class).getResolvedDataSources().values())
+                    .noneMatch(pool -> pool instanceof ConnectionLimitingDataSource);
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package net.javaguides.spring_boot_testing.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.spring_boot_testing.event.EmployeeChangeFeed;
+import net.javaguides.spring_boot_testing.exception.TooManyRequestsException;
+import net.javaguides.spring_boot_testing.ingestion.EmployeeCsvImporter;
+import net.javaguides.spring_boot_testing.ingestion.EmployeeIngestionQueue;
+import net.javaguides.spring_boot_testing.ingestion.IngestionStatus;
+import net.javaguides.spring_boot_testing.model.Employee;
+import net.javaguides.spring_boot_testing.services.EmployeeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import java.util.Optional;
+import static org.hamcrest.CoreMatchers.is;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest
+@Import(EmployeeListSnapshots.class)
+public class EmployeeControllerIngestionTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private EmployeeService employeeService;
+
+    @MockBean
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    @MockBean
+    private EmployeeCsvImporter employeeCsvImporter;
+
+    @MockBean
+    private EmployeeIngestionQueue employeeIngestionQueue;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Employee employee = Employee.builder()
+            .firstName("Gerardo")
+            .lastName("Aponte")
+            .email("aponte@test.com")
+            .build();
+
+    //JUnit test for write-behind create
+    @Test
+    @DisplayName("JUnit test for write-behind create")
+    public void givenIngestionQueue_whenCreateEmployee_thenReturnAccepted() throws Exception {
+        //Given - precondition or setup
+        given(employeeIngestionQueue.submit(any(Employee.class)))
+                .willReturn(new IngestionStatus("abc", IngestionStatus.State.QUEUED, null, null));
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+        //Then - verify the output
+        response.andDo(print())
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/employees/ingestions/abc"))
+                .andExpect(jsonPath("$.trackingId", is("abc")))
+                .andExpect(jsonPath("$.state", is("QUEUED")));
+        verify(employeeService, never()).saveEmployee(any(Employee.class));
+    }
+
+    //JUnit test for write-behind create with a full queue
+    @Test
+    @DisplayName("JUnit test for write-behind create with a full queue")
+    public void givenFullIngestionQueue_whenCreateEmployee_thenReturnTooManyRequests() throws Exception {
+        //Given - precondition or setup
+        given(employeeIngestionQueue.submit(any(Employee.class)))
+                .willThrow(new TooManyRequestsException("Employee ingestion queue is full, retry later"));
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+        //Then - verify the output
+        response.andDo(print())
+                .andExpect(status().isTooManyRequests());
+    }
+
+    //JUnit test for ingestion status
+    @Test
+    @DisplayName("JUnit test for ingestion status")
+    public void givenTrackingId_whenGetIngestionStatus_thenReturnStatus() throws Exception {
+        //Given - precondition or setup
+        given(employeeIngestionQueue.getStatus("abc"))
+                .willReturn(Optional.of(new IngestionStatus("abc", IngestionStatus.State.CREATED, 42L, null)));
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/ingestions/{trackingId}", "abc"));
+        //Then - verify the output
+        response.andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state", is("CREATED")))
+                .andExpect(jsonPath("$.employeeId", is(42)));
+    }
+
+    //JUnit test for unknown ingestion tracking id
+    @Test
+    @DisplayName("JUnit test for unknown ingestion tracking id")
+    public void givenUnknownTrackingId_whenGetIngestionStatus_thenReturnNotFound() throws Exception {
+        //Given - precondition or setup
+        given(employeeIngestionQueue.getStatus("missing")).willReturn(Optional.empty());
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/ingestions/{trackingId}", "missing"));
+        //Then - verify the output
+        response.andDo(print())
+                .andExpect(status().isNotFound());
+    }
+}
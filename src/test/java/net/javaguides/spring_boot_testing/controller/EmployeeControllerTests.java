@@ -1,7 +1,17 @@
 package net.javaguides.spring_boot_testing.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import net.javaguides.spring_boot_testing.config.BinaryFormatConfig;
+import net.javaguides.spring_boot_testing.event.EmployeeChange;
+import net.javaguides.spring_boot_testing.event.EmployeeChangeFeed;
+import net.javaguides.spring_boot_testing.event.EmployeeChangedEvent;
+import net.javaguides.spring_boot_testing.exception.InvalidRequestException;
+import net.javaguides.spring_boot_testing.exception.ResourceConflictException;
+import net.javaguides.spring_boot_testing.exception.ResourceNotFoundException;
+import net.javaguides.spring_boot_testing.ingestion.EmployeeCsvImporter;
+import net.javaguides.spring_boot_testing.ingestion.EmployeeImportReport;
 import net.javaguides.spring_boot_testing.model.Employee;
+import net.javaguides.spring_boot_testing.repository.EmployeeVersion;
 import net.javaguides.spring_boot_testing.services.EmployeeService;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.DisplayName;
@@ -10,14 +20,23 @@ import static org.mockito.BDDMockito.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.MvcResult;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 import static org.hamcrest.CoreMatchers.is;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.*;
@@ -26,6 +45,7 @@ import static org.mockito.BDDMockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
 @WebMvcTest
+@Import({BinaryFormatConfig.class, EmployeeListSnapshots.class})
 public class EmployeeControllerTests {
 
     @Autowired
@@ -34,6 +54,12 @@ public class EmployeeControllerTests {
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    @MockBean
+    private EmployeeCsvImporter employeeCsvImporter;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -67,6 +93,27 @@ public class EmployeeControllerTests {
                         is(employee.getEmail())));
     }
 
+    //JUnit test for create employee with an existing email
+    @Test
+    @DisplayName("JUnit test for create employee REST API with an existing email")
+    public void givenExistingEmail_whenCreateEmployee_thenReturnConflict() throws Exception {
+        //Given - precondition or setup
+        Employee employee = Employee.builder()
+                .firstName("Gerardo")
+                .lastName("Aponte")
+                .email("aponte@test.com")
+                .build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willThrow(new ResourceConflictException("Employee aponte@test.com already exists"));
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(employee)));
+        //Then - verify the output
+        response.andExpect(status().isConflict())
+                .andDo(print());
+    }
+
     //JUnit test for GetAll Employee API
     @Test
     @DisplayName("Unit test for GetAll Employee API")
@@ -76,14 +123,174 @@ public class EmployeeControllerTests {
         listOfEmployee.add(Employee.builder().firstName("Gerardo").lastName("Aponte").email("gerardo@test.com").build());
         listOfEmployee.add(Employee.builder().firstName("Ariel").lastName("Garcia").email("ariel@test.com").build());
         listOfEmployee.add(Employee.builder().firstName("agua").lastName("bottton").email("peluche@test.com").build());
-        given(employeeService.getAllEmployees()).willReturn(listOfEmployee);
+        given(employeeService.getEmployeesAfter(0L, 100)).willReturn(listOfEmployee);
         //When - action or the behaviour that we are going to test
         ResultActions response = mockMvc.perform(get("/api/employees"));
         //Then - verify the output
         response.andExpect(MockMvcResultMatchers.status().isOk())
                 .andDo(MockMvcResultHandlers.print())
                 .andExpect(MockMvcResultMatchers.jsonPath("$.size()",
-                        CoreMatchers.is(listOfEmployee.size())));
+                        CoreMatchers.is(listOfEmployee.size())))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    //JUnit test for keyset paginated GetAll Employee API
+    @Test
+    @DisplayName("Unit test for keyset paginated GetAll Employee API")
+    public void givenFullPage_whenGetAllEmployeeAfterCursor_thenReturnNextCursor() throws Exception {
+        //Given - precondition or setup
+        List<Employee> listOfEmployee = new ArrayList<>();
+        listOfEmployee.add(Employee.builder().id(11L).firstName("Gerardo").lastName("Aponte").email("gerardo@test.com").build());
+        listOfEmployee.add(Employee.builder().id(12L).firstName("Ariel").lastName("Garcia").email("ariel@test.com").build());
+        given(employeeService.getEmployeesAfter(10L, 2)).willReturn(listOfEmployee);
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("after", "10")
+                .param("limit", "2"));
+        //Then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(header().string("X-Next-Cursor", "12"));
+    }
+
+    //JUnit test for projected GetAll Employee API
+    @Test
+    @DisplayName("Unit test for projected GetAll Employee API")
+    public void givenFields_whenGetAllEmployees_thenReturnOnlyRequestedFields() throws Exception {
+        //Given - precondition or setup
+        List<Map<String, Object>> listOfEmployee = List.of(
+                Map.of("id", 11L, "email", "gerardo@test.com"),
+                Map.of("id", 12L, "email", "ariel@test.com"));
+        given(employeeService.getEmployeeFieldsAfter(10L, 2, List.of("id", "email"))).willReturn(listOfEmployee);
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("fields", "id,email")
+                .param("after", "10")
+                .param("limit", "2"));
+        //Then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$[0].email", is("gerardo@test.com")))
+                .andExpect(jsonPath("$[0].firstName").doesNotExist())
+                .andExpect(header().string("X-Next-Cursor", "12"));
+        verify(employeeService, never()).getEmployeesAfter(anyLong(), anyInt());
+    }
+
+    //JUnit test for projected Get Employee by Id API with an unknown field
+    @Test
+    @DisplayName("Unit test for projected Get Employee by Id API with an unknown field")
+    public void givenUnknownField_whenGetEmployeeById_thenReturnBadRequest() throws Exception {
+        //Given - precondition or setup
+        given(employeeService.getEmployeeFieldsById(1L, List.of("salary")))
+                .willThrow(new InvalidRequestException("Unknown employee field salary"));
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", 1L).param("fields", "salary"));
+        //Then - verify the output
+        response.andExpect(status().isBadRequest())
+                .andDo(print());
+        verify(employeeService, never()).getEmployeeById(anyLong());
+    }
+
+    //JUnit test for NDJSON export Employee API
+    @Test
+    @DisplayName("Unit test for NDJSON export Employee API")
+    public void givenEmployees_whenExportEmployees_thenStreamOneJsonObjectPerLine() throws Exception {
+        //Given - precondition or setup
+        willAnswer((invocation) -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(Employee.builder().id(1L).firstName("Gerardo").lastName("Aponte").email("gerardo@test.com").build());
+            consumer.accept(Employee.builder().id(2L).firstName("Ariel").lastName("Garcia").email("ariel@test.com").build());
+            return null;
+        }).given(employeeService).exportEmployees(any());
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/export"))
+                .andExpect(request().asyncStarted());
+        //Then - verify the output
+        mockMvc.perform(asyncDispatch(response.andReturn()))
+                .andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(CoreMatchers.startsWith("{\"id\":1,")))
+                .andExpect(content().string(CoreMatchers.containsString("}\n{\"id\":2,")))
+                .andExpect(content().string(CoreMatchers.endsWith("}\n")));
+    }
+
+    //JUnit test for CBOR sequence export Employee API
+    @Test
+    @DisplayName("Unit test for CBOR sequence export Employee API")
+    public void givenEmployees_whenExportEmployeesAsCbor_thenStreamCborSequence() throws Exception {
+        //Given - precondition or setup
+        willAnswer((invocation) -> {
+            Consumer<Employee> consumer = invocation.getArgument(0);
+            consumer.accept(Employee.builder().id(1L).firstName("Gerardo").lastName("Aponte").email("gerardo@test.com").build());
+            consumer.accept(Employee.builder().id(2L).firstName("Ariel").lastName("Garcia").email("ariel@test.com").build());
+            return null;
+        }).given(employeeService).exportEmployees(any());
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/export")
+                        .accept(BinaryFormatConfig.APPLICATION_CBOR_SEQ))
+                .andExpect(request().asyncStarted());
+        //Then - verify the output
+        MvcResult result = mockMvc.perform(asyncDispatch(response.andReturn()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BinaryFormatConfig.APPLICATION_CBOR_SEQ))
+                .andReturn();
+        List<Employee> employees = BinaryFormatConfig.cborMapper(objectMapper).readerFor(Employee.class)
+                .<Employee>readValues(result.getResponse().getContentAsByteArray()).readAll();
+        org.assertj.core.api.Assertions.assertThat(employees).extracting(Employee::getEmail)
+                .containsExactly("gerardo@test.com", "ariel@test.com");
+    }
+
+    //JUnit test for Get Employee by ID Rest API as CBOR
+    @Test
+    @DisplayName("JUnit test for Get Employee by Id Rest API as CBOR")
+    public void givenEmployeeId_whenGetEmployeeByIdAsCbor_thenReturnCborEmployee() throws Exception {
+        //Given - precondition or setup
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .id(employeeId)
+                .firstName("Gerardo")
+                .lastName("Aponte")
+                .email("aponte@test.com")
+                .build();
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .accept(MediaType.APPLICATION_CBOR));
+        //Then - verify the output
+        MvcResult result = response.andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn();
+        Employee cborEmployee = BinaryFormatConfig.cborMapper(objectMapper)
+                .readValue(result.getResponse().getContentAsByteArray(), Employee.class);
+        org.assertj.core.api.Assertions.assertThat(cborEmployee.getEmail()).isEqualTo("aponte@test.com");
+    }
+
+    //JUnit test for create employee REST API with Smile
+    @Test
+    @DisplayName("JUnit test for create employee REST API with Smile")
+    public void givenSmileEmployee_whenCreateEmployee_thenReturnSmileEmployee() throws Exception {
+        //Given - precondition or setup
+        ObjectMapper smileMapper = BinaryFormatConfig.smileMapper(objectMapper);
+        Employee employee = Employee.builder()
+                .firstName("Gerardo")
+                .lastName("Aponte")
+                .email("aponte@test.com")
+                .build();
+        given(employeeService.saveEmployee(any(Employee.class)))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees")
+                .contentType(BinaryFormatConfig.APPLICATION_SMILE)
+                .accept(BinaryFormatConfig.APPLICATION_SMILE)
+                .content(smileMapper.writeValueAsBytes(employee)));
+        //Then - verify the output
+        MvcResult result = response.andExpect(status().isCreated())
+                .andExpect(content().contentType(BinaryFormatConfig.APPLICATION_SMILE))
+                .andReturn();
+        Employee smileEmployee = smileMapper.readValue(result.getResponse().getContentAsByteArray(), Employee.class);
+        org.assertj.core.api.Assertions.assertThat(smileEmployee.getFirstName()).isEqualTo("Gerardo");
     }
 
     //JUnit test for Get Employee by ID Rest API
@@ -127,6 +334,264 @@ public class EmployeeControllerTests {
                 .andDo(print());
     }
 
+    //JUnit test for conditional Get Employee by Id Rest API
+    @Test
+    @DisplayName("JUnit test for conditional Get Employee by Id Rest API with a current ETag")
+    public void givenCurrentETag_whenGetEmployeeById_thenReturnNotModified() throws Exception {
+        //Given - precondition or setup
+        long employeeId = 1L;
+        given(employeeService.getEmployeeVersion(employeeId)).willReturn(Optional.of(new EmployeeVersion(employeeId, 3L)));
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+        //Then - verify the output
+        response.andExpect(status().isNotModified())
+                .andDo(print())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(content().string(""));
+        verify(employeeService, never()).getEmployeeById(anyLong());
+    }
+
+    //JUnit test for conditional Get Employee by Id Rest API with a stale ETag
+    @Test
+    @DisplayName("JUnit test for conditional Get Employee by Id Rest API with a stale ETag")
+    public void givenStaleETag_whenGetEmployeeById_thenReturnEmployeeAndNewETag() throws Exception {
+        //Given - precondition or setup
+        long employeeId = 1L;
+        Employee employee = Employee.builder()
+                .id(employeeId)
+                .firstName("Gerardo")
+                .lastName("Aponte")
+                .email("aponte@test.com")
+                .version(3L)
+                .build();
+        given(employeeService.getEmployeeVersion(employeeId)).willReturn(Optional.of(new EmployeeVersion(employeeId, 3L)));
+        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(employee));
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/{id}", employeeId)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"2\""));
+        //Then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3\""))
+                .andExpect(jsonPath("$.version", is(3)));
+    }
+
+    //JUnit test for conditional GetAll Employee API
+    @Test
+    @DisplayName("Unit test for conditional GetAll Employee API")
+    public void givenUnchangedPage_whenGetAllEmployeesWithETag_thenReturnNotModified() throws Exception {
+        //Given - precondition or setup
+        List<Employee> listOfEmployee = List.of(
+                Employee.builder().id(11L).firstName("Gerardo").lastName("Aponte").email("gerardo@test.com").version(1L).build(),
+                Employee.builder().id(12L).firstName("Ariel").lastName("Garcia").email("ariel@test.com").version(4L).build());
+        given(employeeService.getEmployeesAfter(10L, 2)).willReturn(listOfEmployee);
+        given(employeeService.getEmployeeVersionsAfter(10L, 2))
+                .willReturn(List.of(new EmployeeVersion(11L, 1L), new EmployeeVersion(12L, 4L)));
+        String eTag = mockMvc.perform(get("/api/employees").param("after", "10").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .param("after", "10")
+                .param("limit", "2")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag));
+        //Then - verify the output
+        response.andExpect(status().isNotModified())
+                .andDo(print());
+        verify(employeeService, times(1)).getEmployeesAfter(10L, 2);
+    }
+
+    //JUnit test for conditional GetAll Employee API across formats
+    @Test
+    @DisplayName("Unit test for conditional GetAll Employee API with a JSON ETag and a CBOR Accept")
+    public void givenJsonETag_whenGetAllEmployeesAsCbor_thenReturnCborPage() throws Exception {
+        //Given - precondition or setup
+        List<Employee> listOfEmployee = List.of(
+                Employee.builder().id(11L).firstName("Gerardo").lastName("Aponte").email("gerardo@test.com").version(1L).build());
+        given(employeeService.getEmployeesAfter(10L, 2)).willReturn(listOfEmployee);
+        given(employeeService.getEmployeeVersionsAfter(10L, 2)).willReturn(List.of(new EmployeeVersion(11L, 1L)));
+        String jsonETag = mockMvc.perform(get("/api/employees").param("after", "10").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, CoreMatchers.containsString(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        //When - action or the behaviour that we are going to test
+        MvcResult result = mockMvc.perform(get("/api/employees")
+                        .param("after", "10")
+                        .param("limit", "2")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonETag))
+        //Then - verify the output
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING))
+                .andReturn();
+        String cborETag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        org.assertj.core.api.Assertions.assertThat(cborETag).startsWith("\"cbor-").isNotEqualTo(jsonETag);
+        mockMvc.perform(get("/api/employees")
+                        .param("after", "10")
+                        .param("limit", "2")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, cborETag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    //JUnit test for precompressed GetAll Employee API
+    @Test
+    @DisplayName("Unit test for precompressed GetAll Employee API")
+    public void givenUnchangedPage_whenGetAllEmployeesWithGzip_thenServeCompressedSnapshot() throws Exception {
+        //Given - precondition or setup
+        List<Employee> listOfEmployee = new ArrayList<>();
+        List<EmployeeVersion> versions = new ArrayList<>();
+        for (long id = 101; id <= 150; id++) {
+            listOfEmployee.add(Employee.builder().id(id).firstName("First" + id).lastName("Last" + id)
+                    .email("employee" + id + "@test.com").version(2L).build());
+            versions.add(new EmployeeVersion(id, 2L));
+        }
+        given(employeeService.getEmployeeVersionsAfter(100L, 50)).willReturn(versions);
+        given(employeeService.getEmployeesAfter(100L, 50)).willReturn(listOfEmployee);
+        mockMvc.perform(get("/api/employees").param("after", "100").param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()", is(50)));
+        //When - action or the behaviour that we are going to test
+        MvcResult result = mockMvc.perform(get("/api/employees")
+                        .param("after", "100")
+                        .param("limit", "50")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+        //Then - verify the output
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string("X-Next-Cursor", "150"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+        byte[] json;
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            json = gzip.readAllBytes();
+        }
+        org.assertj.core.api.Assertions.assertThat(objectMapper.readValue(json, Employee[].class)).hasSize(50);
+        verify(employeeService, times(1)).getEmployeesAfter(100L, 50);
+    }
+
+    //JUnit test for GetAll Employee API as CBOR
+    @Test
+    @DisplayName("Unit test for GetAll Employee API as CBOR")
+    public void givenListOfEmployee_whenGetAllEmployeesAsCbor_thenReturnCborList() throws Exception {
+        //Given - precondition or setup
+        given(employeeService.getEmployeesAfter(0L, 100)).willReturn(List.of(
+                Employee.builder().id(1L).firstName("Gerardo").lastName("Aponte").email("gerardo@test.com").build()));
+        //When - action or the behaviour that we are going to test
+        MvcResult result = mockMvc.perform(get("/api/employees")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+        //Then - verify the output
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andReturn();
+        Employee[] employees = BinaryFormatConfig.cborMapper(objectMapper)
+                .readValue(result.getResponse().getContentAsByteArray(), Employee[].class);
+        org.assertj.core.api.Assertions.assertThat(employees).extracting(Employee::getEmail).containsExactly("gerardo@test.com");
+        verify(employeeService, never()).getEmployeeVersionsAfter(anyLong(), anyInt());
+    }
+
+    //JUnit test for GetAll Employee API with an unsupported Accept
+    @Test
+    @DisplayName("Unit test for GetAll Employee API with an unsupported Accept")
+    public void givenUnsupportedAccept_whenGetAllEmployees_thenReturnNotAcceptableWithoutQuery() throws Exception {
+        //Given - precondition or setup
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees")
+                .accept(MediaType.APPLICATION_XML));
+        //Then - verify the output
+        response.andExpect(status().isNotAcceptable())
+                .andDo(print());
+        verify(employeeService, never()).getEmployeeVersionsAfter(anyLong(), anyInt());
+        verify(employeeService, never()).getEmployeesAfter(anyLong(), anyInt());
+    }
+
+    //JUnit test for employee change stream REST API
+    @Test
+    @DisplayName("Unit test for employee change stream REST API")
+    public void givenLastEventId_whenStreamChanges_thenSendChangesAsEvents() throws Exception {
+        //Given - precondition or setup
+        EmployeeChange change = new EmployeeChange(42L, EmployeeChangedEvent.Type.CREATED, 7L,
+                "{\"id\":7,\"firstName\":\"Gerardo\"}");
+        given(employeeChangeFeed.subscribe(eq(41L), any())).willAnswer(invocation -> {
+            invocation.<EmployeeChangeFeed.Listener>getArgument(1).onChange(change);
+            return (EmployeeChangeFeed.Subscription) () -> {
+            };
+        });
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/changes")
+                .header("Last-Event-ID", "41")
+                .accept(MediaType.TEXT_EVENT_STREAM));
+        //Then - verify the output
+        response.andExpect(request().asyncStarted())
+                .andExpect(content().string(CoreMatchers.containsString(
+                        "id:42\nevent:created\ndata:{\"id\":7,\"firstName\":\"Gerardo\"}\n\n")));
+        verify(employeeChangeFeed).subscribe(eq(41L), any());
+    }
+
+    //JUnit test for CSV import REST API
+    @Test
+    @DisplayName("Unit test for CSV import REST API")
+    public void givenCsvBody_whenImportEmployees_thenReturnImportReport() throws Exception {
+        //Given - precondition or setup
+        given(employeeCsvImporter.importCsv(any(InputStream.class), eq(1001L))).willAnswer(invocation -> {
+            org.assertj.core.api.Assertions.assertThat(new String(invocation.<InputStream>getArgument(0).readAllBytes()))
+                    .startsWith("firstName,lastName,email");
+            return new EmployeeImportReport();
+        });
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees/import")
+                .param("fromRow", "1001")
+                .contentType("text/csv")
+                .content("firstName,lastName,email\nGerardo,Aponte,gerardo@test.com\n"));
+        //Then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(0)))
+                .andExpect(jsonPath("$.errors.size()", is(0)));
+        verify(employeeCsvImporter).importCsv(any(InputStream.class), eq(1001L));
+    }
+
+    //JUnit test for CSV file upload REST API
+    @Test
+    @DisplayName("Unit test for CSV file upload REST API")
+    public void givenCsvFile_whenImportEmployeeFile_thenReturnImportReport() throws Exception {
+        //Given - precondition or setup
+        MockMultipartFile file = new MockMultipartFile("file", "employees.csv", "text/csv",
+                "firstName,lastName,email\n".getBytes());
+        given(employeeCsvImporter.importCsv(any(InputStream.class), eq(1L))).willReturn(new EmployeeImportReport());
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(multipart("/api/employees/import").file(file));
+        //Then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsRead", is(0)));
+        verify(employeeCsvImporter).importCsv(any(InputStream.class), eq(1L));
+    }
+
+    //JUnit test for search employees REST API
+    @Test
+    @DisplayName("JUnit test for search employees REST API")
+    public void givenQuery_whenSearchEmployees_thenReturnRankedEmployees() throws Exception {
+        //Given - precondition or setup
+        List<Employee> listOfEmployee = List.of(
+                Employee.builder().id(2L).firstName("Gerald").lastName("Garcia").email("gerald@test.com").build(),
+                Employee.builder().id(1L).firstName("Gerardo").lastName("Aponte").email("aponte@test.com").build());
+        given(employeeService.searchEmployees("ger", 5)).willReturn(listOfEmployee);
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(get("/api/employees/search")
+                .param("q", "ger")
+                .param("limit", "5"));
+        //Then - verify the output
+        response.andExpect(status().isOk())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(2)))
+                .andExpect(jsonPath("$[0].firstName", is("Gerald")));
+        verify(employeeService, never()).getEmployeeById(anyLong());
+    }
+
     //JUnit test for updated employee REST API
     @Test
     @DisplayName("JUnit test for updated employee REST API ")
@@ -145,7 +610,6 @@ public class EmployeeControllerTests {
                 .email("Garcia@test.com")
                 .build();
 
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.of(savedEmployee));
         given(employeeService.updateEmployee(any(Employee.class)))
                 .willAnswer((invocation) -> invocation.getArgument(0));
         //When - action or the behaviour that we are going to test
@@ -177,9 +641,8 @@ public class EmployeeControllerTests {
                 .lastName("Garcia")
                 .email("Garcia@test.com")
                 .build();
-        given(employeeService.getEmployeeById(employeeId)).willReturn(Optional.empty());
         given(employeeService.updateEmployee(any(Employee.class)))
-                .willAnswer((invocation) -> invocation.getArgument(0));
+                .willThrow(new ResourceNotFoundException("Employee " + employeeId + " not found"));
         //When - action or the behaviour that we are going to test
 
         ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
@@ -190,6 +653,49 @@ public class EmployeeControllerTests {
                 .andDo(print());
     }
 
+    //JUnit test for updated employee REST API with a stale version
+    @Test
+    @DisplayName("JUnit test for updated employee REST API with a stale version")
+    public void givenStaleVersion_whenUpdatedEmployee_thenReturnConflict() throws Exception {
+        //Given - precondition or setup
+        long employeeId = 1L;
+        Employee updatedEmployee = Employee.builder()
+                .firstName("Ariel")
+                .lastName("Garcia")
+                .email("Garcia@test.com")
+                .version(3L)
+                .build();
+        given(employeeService.updateEmployee(any(Employee.class)))
+                .willThrow(new ResourceConflictException("Employee " + employeeId + " was modified"));
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(put("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(updatedEmployee)));
+        //Then - verify the output
+        response.andExpect(status().isConflict())
+                .andDo(print());
+        verify(employeeService, never()).getEmployeeById(anyLong());
+    }
+
+    //JUnit test for patch employee REST API
+    @Test
+    @DisplayName("JUnit test for patch employee REST API")
+    public void givenEmailOnly_whenPatchEmployee_thenReturnNoContent() throws Exception {
+        //Given - precondition or setup
+        long employeeId = 1L;
+        willDoNothing().given(employeeService).patchEmployee(eq(employeeId), any(Employee.class));
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(patch("/api/employees/{id}", employeeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"Garcia@test.com\"}"));
+        //Then - verify the output
+        response.andExpect(status().isNoContent())
+                .andDo(print());
+        verify(employeeService).patchEmployee(eq(employeeId), argThat(changes ->
+                changes.getFirstName() == null && changes.getLastName() == null
+                        && "Garcia@test.com".equals(changes.getEmail())));
+    }
+
     //JUnit test for deleted employee REST API
     @Test
     @DisplayName("Unit test for deleted employee REST API")
@@ -203,4 +709,55 @@ public class EmployeeControllerTests {
         response.andExpect(status().isOk())
                 .andDo(print());
     }
+
+    //JUnit test for deleted employee REST API with a missing employee
+    @Test
+    @DisplayName("Unit test for deleted employee REST API with a missing employee")
+    public void givenMissingEmployeeId_whenDeleteEmployee_thenReturn404() throws Exception {
+        //Given - precondition or setup
+        long employeeId = 1L;
+        willThrow(new ResourceNotFoundException("Employee 1 not found")).given(employeeService).deleteEmployee(employeeId);
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(delete("/api/employees/{id}", employeeId));
+        //Then - verify the output
+        response.andExpect(status().isNotFound())
+                .andDo(print());
+    }
+
+    //JUnit test for bulk delete employee REST API
+    @Test
+    @DisplayName("Unit test for bulk delete employee REST API")
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturnDeletedCount() throws Exception {
+        //Given - precondition or setup
+        given(employeeService.deleteEmployees(List.of(1L, 2L, 3L))).willReturn(2);
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(delete("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[1,2,3]"));
+        //Then - verify the output
+        response.andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted", is(2)))
+                .andDo(print());
+    }
+
+    //JUnit test for batch create employee REST API
+    @Test
+    @DisplayName("JUnit test for batch create employee REST API")
+    public void givenListOfEmployee_whenCreateEmployees_thenReturnSavedEmployees() throws Exception {
+        //Given - precondition or setup
+        List<Employee> listOfEmployee = new ArrayList<>();
+        listOfEmployee.add(Employee.builder().firstName("Gerardo").lastName("Aponte").email("gerardo@test.com").build());
+        listOfEmployee.add(Employee.builder().firstName("Ariel").lastName("Garcia").email("ariel@test.com").build());
+        given(employeeService.saveEmployees(anyList()))
+                .willAnswer((invocation) -> invocation.getArgument(0));
+        //When - action or the behaviour that we are going to test
+        ResultActions response = mockMvc.perform(post("/api/employees/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(listOfEmployee)));
+        //Then - verify the output
+        response.andExpect(status().isCreated())
+                .andDo(print())
+                .andExpect(jsonPath("$.size()", is(listOfEmployee.size())))
+                .andExpect(jsonPath("$[1].email", is("ariel@test.com")));
+    }
 }
@@ -0,0 +1,163 @@
+package net.javaguides.spring_boot_testing.controller;
+
+import net.javaguides.spring_boot_testing.exception.ResourceConflictException;
+import net.javaguides.spring_boot_testing.exception.ResourceNotFoundException;
+import net.javaguides.spring_boot_testing.model.ReactiveEmployee;
+import net.javaguides.spring_boot_testing.services.ReactiveEmployeeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+
+@WebFluxTest(ReactiveEmployeeController.class)
+@ActiveProfiles("reactive")
+public class ReactiveEmployeeControllerTests {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveEmployeeService employeeService;
+
+    //JUnit test for reactive create employee REST API
+    @Test
+    @DisplayName("JUnit test for reactive create employee REST API")
+    public void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee() {
+        //Given - precondition or setup
+        ReactiveEmployee employee = ReactiveEmployee.builder()
+                .firstName("Gerardo")
+                .lastName("Aponte")
+                .email("aponte@test.com")
+                .build();
+        given(employeeService.saveEmployee(any(ReactiveEmployee.class)))
+                .willAnswer(invocation -> {
+                    ReactiveEmployee saved = invocation.getArgument(0);
+                    saved.setId(1L);
+                    saved.setVersion(0L);
+                    return Mono.just(saved);
+                });
+        //When - action or the behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employee)
+                .exchange();
+        //Then - verify the output
+        response.expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.email").isEqualTo("aponte@test.com")
+                .jsonPath("$.version").isEqualTo(0);
+    }
+
+    //JUnit test for reactive create employee REST API with an existing email
+    @Test
+    @DisplayName("JUnit test for reactive create employee REST API with an existing email")
+    public void givenExistingEmail_whenCreateEmployee_thenReturnConflict() {
+        //Given - precondition or setup
+        given(employeeService.saveEmployee(any(ReactiveEmployee.class)))
+                .willReturn(Mono.error(new ResourceConflictException("Employee aponte@test.com already exists")));
+        //When - action or the behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.post().uri("/api/employees")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ReactiveEmployee.builder().firstName("Gerardo").lastName("Aponte").email("aponte@test.com").build())
+                .exchange();
+        //Then - verify the output
+        response.expectStatus().isEqualTo(409);
+    }
+
+    //JUnit test for reactive keyset paginated GetAll Employee API
+    @Test
+    @DisplayName("JUnit test for reactive keyset paginated GetAll Employee API")
+    public void givenFullPage_whenGetAllEmployees_thenReturnNextCursor() {
+        //Given - precondition or setup
+        given(employeeService.getEmployeesAfter(10L, 2)).willReturn(Flux.just(
+                ReactiveEmployee.builder().id(11L).firstName("Gerardo").lastName("Aponte").email("gerardo@test.com").build(),
+                ReactiveEmployee.builder().id(12L).firstName("Ariel").lastName("Garcia").email("ariel@test.com").build()));
+        //When - action or the behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees?after=10&limit=2").exchange();
+        //Then - verify the output
+        response.expectStatus().isOk()
+                .expectHeader().valueEquals(EmployeeController.NEXT_CURSOR_HEADER, "12")
+                .expectBody()
+                .jsonPath("$.size()").isEqualTo(2);
+    }
+
+    //JUnit test for reactive streamed GetAll Employee API
+    @Test
+    @DisplayName("JUnit test for reactive streamed GetAll Employee API")
+    public void givenNdjsonAccept_whenGetAllEmployees_thenStreamEmployees() {
+        //Given - precondition or setup
+        given(employeeService.getEmployeesAfter(0L, 100)).willReturn(Flux.just(
+                ReactiveEmployee.builder().id(1L).firstName("Gerardo").lastName("Aponte").email("gerardo@test.com").build(),
+                ReactiveEmployee.builder().id(2L).firstName("Ariel").lastName("Garcia").email("ariel@test.com").build()));
+        //When - action or the behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange();
+        //Then - verify the output
+        response.expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(ReactiveEmployee.class)
+                .hasSize(2);
+    }
+
+    //JUnit test for reactive get employee by id REST API with an unknown id
+    @Test
+    @DisplayName("JUnit test for reactive get employee by id REST API with an unknown id")
+    public void givenUnknownId_whenGetEmployeeById_thenReturnNotFound() {
+        //Given - precondition or setup
+        given(employeeService.getEmployeeById(1L)).willReturn(Mono.empty());
+        //When - action or the behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.get().uri("/api/employees/1").exchange();
+        //Then - verify the output
+        response.expectStatus().isNotFound();
+    }
+
+    //JUnit test for reactive update employee REST API with a stale version
+    @Test
+    @DisplayName("JUnit test for reactive update employee REST API with a stale version")
+    public void givenStaleVersion_whenUpdateEmployee_thenReturnConflict() {
+        //Given - precondition or setup
+        given(employeeService.updateEmployee(any(ReactiveEmployee.class)))
+                .willReturn(Mono.error(new ResourceConflictException("Employee 1 was modified, version 0 is stale")));
+        //When - action or the behaviour that we are going to test
+        WebTestClient.ResponseSpec response = webTestClient.put().uri("/api/employees/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ReactiveEmployee.builder().firstName("Ram").lastName("Jadhav").email("ram@gmail.com").version(0L).build())
+                .exchange();
+        //Then - verify the output
+        response.expectStatus().isEqualTo(409);
+    }
+
+    //JUnit test for reactive patch employee REST API
+    @Test
+    @DisplayName("JUnit test for reactive patch employee REST API")
+    public void givenChanges_whenPatchEmployee_thenReturnNoContent() {
+        //Given - precondition or setup
+        given(employeeService.patchEmployee(eq(1L), any(ReactiveEmployee.class))).willReturn(Mono.empty());
+        given(employeeService.patchEmployee(eq(2L), any(ReactiveEmployee.class)))
+                .willReturn(Mono.error(new ResourceNotFoundException("Employee 2 not found")));
+        //When - action or the behaviour that we are going to test
+        WebTestClient.ResponseSpec patched = webTestClient.patch().uri("/api/employees/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"email\":\"ram@gmail.com\"}")
+                .exchange();
+        WebTestClient.ResponseSpec missing = webTestClient.patch().uri("/api/employees/2")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"email\":\"ram@gmail.com\"}")
+                .exchange();
+        //Then - verify the output
+        patched.expectStatus().isNoContent();
+        missing.expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,202 @@
+package net.javaguides.spring_boot_testing.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguides.spring_boot_testing.model.Employee;
+import org.assertj.core.api.Assertions;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class EmployeeChangeFeedTest {
+
+    private EmployeeChangeOutbox outbox;
+    private EmployeeChangeFeed feed;
+    private TransactionTemplate transaction;
+
+    @BeforeEach
+    void setUp() {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration/h2").load().migrate();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        outbox = new EmployeeChangeOutbox(jdbcTemplate, new ObjectMapper());
+        feed = new EmployeeChangeFeed(jdbcTemplate, new SimpleMeterRegistry(), Duration.ofMillis(10), 2,
+                Duration.ofSeconds(15), 10, Duration.ofDays(7));
+        feed.start();
+        transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        feed.shutdown();
+    }
+
+    //JUnit test for recording changes in the outbox only when the write commits
+    @Test
+    @DisplayName("JUnit test for recording changes in the outbox only when the write commits")
+    public void givenCommittedAndRolledBackWrites_whenSubscribe_thenReceiveCommittedChanges() throws Exception {
+        //Given - precondition or setup
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(null, listener);
+        //When - action or the behaviour that we are going to test
+        transaction.executeWithoutResult(status -> {
+            created(1L, "gerardo@test.com");
+            outbox.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.UPDATED, 1L,
+                    Employee.builder().email("gerardo@test.com").lastName("Perez").version(1).build()));
+        });
+        transaction.executeWithoutResult(status -> {
+            created(2L, "rolled-back@test.com");
+            status.setRollbackOnly();
+        });
+        outbox.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.DELETED, 1L, null));
+        //Then - verify the output
+        List<EmployeeChange> changes = listener.take(3);
+        Assertions.assertThat(changes).extracting(EmployeeChange::type).containsExactly(EmployeeChangedEvent.Type.CREATED,
+                EmployeeChangedEvent.Type.UPDATED, EmployeeChangedEvent.Type.DELETED);
+        Assertions.assertThat(changes).extracting(EmployeeChange::employee).containsExactly(
+                "{\"id\":1,\"email\":\"gerardo@test.com\",\"version\":0}",
+                "{\"id\":1,\"lastName\":\"Perez\",\"email\":\"gerardo@test.com\",\"version\":1}",
+                "{\"id\":1}");
+        Assertions.assertThat(listener.changes.poll(300, TimeUnit.MILLISECONDS)).isNull();
+    }
+
+    //JUnit test for resuming from a last event id
+    @Test
+    @DisplayName("JUnit test for resuming from a last event id")
+    public void givenLastEventId_whenSubscribe_thenReplayLaterChangesThenLiveChanges() throws Exception {
+        //Given - precondition or setup
+        for (long id = 1; id <= 5; id++) {
+            created(id, "employee" + id + "@test.com");
+        }
+        awaitHead(5);
+        RecordingListener listener = new RecordingListener();
+        //When - action or the behaviour that we are going to test
+        feed.subscribe(1L, listener);
+        List<EmployeeChange> replayed = listener.take(4);
+        created(6L, "employee6@test.com");
+        //Then - verify the output
+        Assertions.assertThat(replayed).extracting(EmployeeChange::employeeId).containsExactly(2L, 3L, 4L, 5L);
+        Assertions.assertThat(listener.take(1)).extracting(EmployeeChange::employeeId).containsExactly(6L);
+    }
+
+    //JUnit test for a slow subscriber not holding up writers or other subscribers
+    @Test
+    @DisplayName("JUnit test for a slow subscriber not holding up writers or other subscribers")
+    public void givenBlockedSubscriber_whenWrite_thenOtherSubscribersReceiveChanges() throws Exception {
+        //Given - precondition or setup
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingListener slow = new RecordingListener() {
+            @Override
+            public void onChange(EmployeeChange change) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                super.onChange(change);
+            }
+        };
+        RecordingListener fast = new RecordingListener();
+        feed.subscribe(null, slow);
+        feed.subscribe(null, fast);
+        //When - action or the behaviour that we are going to test
+        for (long id = 1; id <= 5; id++) {
+            created(id, "employee" + id + "@test.com");
+        }
+        //Then - verify the output
+        Assertions.assertThat(fast.take(5)).extracting(EmployeeChange::employeeId).containsExactly(1L, 2L, 3L, 4L, 5L);
+        release.countDown();
+        Assertions.assertThat(slow.take(5)).extracting(EmployeeChange::employeeId).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    //JUnit test for delivering a slow commit before the writes that waited for it
+    @Test
+    @DisplayName("JUnit test for delivering a slow commit before the writes that waited for it")
+    public void givenSlowCommit_whenLaterWriteCommits_thenReceiveBothInCommitOrder() throws Exception {
+        //Given - precondition or setup
+        RecordingListener listener = new RecordingListener();
+        feed.subscribe(null, listener);
+        CountDownLatch inserted = new CountDownLatch(1);
+        Thread slowWriter = new Thread(() -> transaction.executeWithoutResult(status -> {
+            created(1L, "slow@test.com");
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // the outbox row is inserted, the commit takes longer than a poll
+                    inserted.countDown();
+                    sleep(300);
+                }
+            });
+        }));
+        slowWriter.start();
+        inserted.await(5, TimeUnit.SECONDS);
+        //When - action or the behaviour that we are going to test
+        transaction.executeWithoutResult(status -> created(2L, "fast@test.com"));
+        slowWriter.join();
+        //Then - verify the output
+        Assertions.assertThat(listener.take(2)).extracting(EmployeeChange::employeeId).containsExactly(1L, 2L);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void created(long id, String email) {
+        outbox.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.CREATED, id,
+                Employee.builder().email(email).build()));
+    }
+
+    private void awaitHead(long head) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (feed.head() < head && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static class RecordingListener implements EmployeeChangeFeed.Listener {
+
+        private final BlockingQueue<EmployeeChange> changes = new LinkedBlockingQueue<>();
+
+        @Override
+        public void onChange(EmployeeChange change) throws IOException {
+            changes.add(change);
+        }
+
+        @Override
+        public void onIdle() {
+        }
+
+        List<EmployeeChange> take(int count) throws InterruptedException {
+            List<EmployeeChange> taken = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                EmployeeChange change = changes.poll(5, TimeUnit.SECONDS);
+                Assertions.assertThat(change).as("change %d of %d", i + 1, count).isNotNull();
+                taken.add(change);
+            }
+            return taken;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package net.javaguides.spring_boot_testing.ingestion;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguides.spring_boot_testing.exception.InvalidRequestException;
+import net.javaguides.spring_boot_testing.model.Employee;
+import net.javaguides.spring_boot_testing.services.EmployeeService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeCsvImporterTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    //JUnit test for importing valid rows in chunks
+    @Test
+    @DisplayName("JUnit test for importing valid rows in chunks")
+    public void givenCsvRows_whenImportCsv_thenSaveInChunks() {
+        //Given - precondition or setup
+        EmployeeCsvImporter importer = importer(2);
+        given(employeeService.getExistingEmails(anyCollection())).willReturn(List.of());
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+        //When - action or the behaviour that we are going to test
+        EmployeeImportReport report = importer.importCsv(csv("""
+                email,First Name,last_name,department
+                gerardo@test.com,Gerardo,Aponte,IT
+                "ramesh@test.com","Ramesh","Fadatare, Jr",HR
+
+                tony@test.com,Tony,Stark,R&D
+                """), 1);
+        //Then - verify the output
+        verify(employeeService, times(2)).saveEmployees(anyList());
+        verify(employeeService).saveEmployees(argThat((List<Employee> employees) -> employees.size() == 2
+                && employees.get(1).getLastName().equals("Fadatare, Jr")));
+        Assertions.assertThat(report.getRowsRead()).isEqualTo(3);
+        Assertions.assertThat(report.getImported()).isEqualTo(3);
+        Assertions.assertThat(report.getErrors()).isEmpty();
+        Assertions.assertThat(report.getResumeFromRow()).isNull();
+    }
+
+    //JUnit test for reporting invalid and duplicate rows
+    @Test
+    @DisplayName("JUnit test for reporting invalid and duplicate rows")
+    public void givenInvalidAndDuplicateRows_whenImportCsv_thenReportRowErrors() {
+        //Given - precondition or setup
+        EmployeeCsvImporter importer = importer(10);
+        given(employeeService.getExistingEmails(anyCollection())).willReturn(List.of("existing@test.com"));
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> invocation.getArgument(0));
+        //When - action or the behaviour that we are going to test
+        EmployeeImportReport report = importer.importCsv(csv("""
+                firstName,lastName,email
+                Gerardo,Aponte,gerardo@test.com
+                Ramesh,,ramesh@test.com
+                Tony,Stark,not-an-email
+                Gerardo,Aponte,GERARDO@test.com
+                Existing,Employee,EXISTING@test.com
+                """), 1);
+        //Then - verify the output
+        verify(employeeService).saveEmployees(argThat((List<Employee> employees) -> employees.size() == 1));
+        Assertions.assertThat(report.getImported()).isEqualTo(1);
+        Assertions.assertThat(report.getRejected()).isEqualTo(4);
+        Assertions.assertThat(report.getErrors()).extracting(EmployeeImportReport.RowError::row)
+                .containsExactly(2L, 3L, 4L, 5L);
+        Assertions.assertThat(report.getErrors().get(2).message()).isEqualTo("Email is duplicated in row 1");
+        Assertions.assertThat(report.getErrors().get(3).message()).isEqualTo("Employee already exists");
+    }
+
+    //JUnit test for resuming after a failed chunk
+    @Test
+    @DisplayName("JUnit test for resuming after a failed chunk")
+    public void givenFailedChunk_whenImportCsvFromResumeRow_thenImportRemainingRows() {
+        //Given - precondition or setup
+        EmployeeCsvImporter importer = importer(2);
+        String csv = """
+                firstName,lastName,email
+                A,One,one@test.com
+                B,Two,two@test.com
+                C,Three,three@test.com
+                D,Four,four@test.com
+                E,Five,five@test.com
+                """;
+        given(employeeService.getExistingEmails(anyCollection())).willReturn(List.of());
+        given(employeeService.saveEmployees(anyList()))
+                .willAnswer(invocation -> invocation.getArgument(0))
+                .willThrow(new DataAccessResourceFailureException("Connection reset"))
+                .willAnswer(invocation -> invocation.getArgument(0));
+        //When - action or the behaviour that we are going to test
+        EmployeeImportReport failed = importer.importCsv(csv(csv), 1);
+        EmployeeImportReport resumed = importer.importCsv(csv(csv), failed.getResumeFromRow());
+        //Then - verify the output
+        Assertions.assertThat(failed.getImported()).isEqualTo(2);
+        Assertions.assertThat(failed.getResumeFromRow()).isEqualTo(3L);
+        Assertions.assertThat(failed.getFailure()).contains("Connection reset");
+        Assertions.assertThat(resumed.getSkipped()).isEqualTo(2);
+        Assertions.assertThat(resumed.getImported()).isEqualTo(3);
+        Assertions.assertThat(resumed.getResumeFromRow()).isNull();
+    }
+
+    //JUnit test for rejecting a CSV without the required columns
+    @Test
+    @DisplayName("JUnit test for rejecting a CSV without the required columns")
+    public void givenHeaderWithoutEmail_whenImportCsv_thenThrowsInvalidRequestException() {
+        //Given - precondition or setup
+        EmployeeCsvImporter importer = importer(10);
+        //When - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(InvalidRequestException.class,
+                () -> importer.importCsv(csv("firstName,lastName\nGerardo,Aponte\n"), 1));
+        //Then - verify the output
+        verify(employeeService, never()).saveEmployees(anyList());
+    }
+
+    private EmployeeCsvImporter importer(int chunkSize) {
+        return new EmployeeCsvImporter(employeeService, new SimpleMeterRegistry(), chunkSize);
+    }
+
+    private static InputStream csv(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
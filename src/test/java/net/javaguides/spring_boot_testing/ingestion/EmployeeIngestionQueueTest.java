@@ -0,0 +1,170 @@
+package net.javaguides.spring_boot_testing.ingestion;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.javaguides.spring_boot_testing.exception.ResourceConflictException;
+import net.javaguides.spring_boot_testing.exception.TooManyRequestsException;
+import net.javaguides.spring_boot_testing.model.Employee;
+import net.javaguides.spring_boot_testing.services.EmployeeService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.BDDMockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeIngestionQueueTest {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    //JUnit test for draining queued creates in one batch
+    @Test
+    @DisplayName("JUnit test for draining queued creates in one batch")
+    public void givenQueuedEmployees_whenDrained_thenSavedInOneBatch() throws InterruptedException {
+        //Given - precondition or setup
+        EmployeeIngestionQueue ingestionQueue = ingestionQueue(10);
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            for (int i = 0; i < employees.size(); i++) {
+                employees.get(i).setId(i + 1L);
+            }
+            return employees;
+        });
+        IngestionStatus first = ingestionQueue.submit(employee("gerardo@test.com"));
+        IngestionStatus second = ingestionQueue.submit(employee("ramesh@test.com"));
+        //When - action or the behaviour that we are going to test
+        ingestionQueue.start();
+        ingestionQueue.shutdown();
+        //Then - verify the output
+        verify(employeeService, times(1)).saveEmployees(anyList());
+        Assertions.assertThat(first.getState()).isEqualTo(IngestionStatus.State.QUEUED);
+        Assertions.assertThat(ingestionQueue.getStatus(first.getTrackingId()).get().getEmployeeId()).isEqualTo(1L);
+        Assertions.assertThat(ingestionQueue.getStatus(second.getTrackingId()).get().getState())
+                .isEqualTo(IngestionStatus.State.CREATED);
+        Assertions.assertThat(ingestionQueue.size()).isZero();
+    }
+
+    //JUnit test for isolating a failed row of a batch
+    @Test
+    @DisplayName("JUnit test for isolating a failed row of a batch")
+    public void givenConflictingEmployee_whenDrained_thenOnlyThatRowFails() throws InterruptedException {
+        //Given - precondition or setup
+        EmployeeIngestionQueue ingestionQueue = ingestionQueue(10);
+        Employee duplicate = employee("duplicate@test.com");
+        given(employeeService.saveEmployees(anyList()))
+                .willThrow(new ResourceConflictException("Employees [duplicate@test.com] already exist"));
+        given(employeeService.saveEmployee(any(Employee.class))).willAnswer(invocation -> {
+            Employee employee = invocation.getArgument(0);
+            if (employee == duplicate) {
+                throw new ResourceConflictException("Employee already exist with given email: duplicate@test.com");
+            }
+            employee.setId(7L);
+            return employee;
+        });
+        IngestionStatus failed = ingestionQueue.submit(duplicate);
+        IngestionStatus created = ingestionQueue.submit(employee("ramesh@test.com"));
+        //When - action or the behaviour that we are going to test
+        ingestionQueue.start();
+        ingestionQueue.shutdown();
+        //Then - verify the output
+        IngestionStatus failedStatus = ingestionQueue.getStatus(failed.getTrackingId()).get();
+        Assertions.assertThat(failedStatus.getState()).isEqualTo(IngestionStatus.State.FAILED);
+        Assertions.assertThat(failedStatus.getError()).contains("duplicate@test.com");
+        Assertions.assertThat(ingestionQueue.getStatus(created.getTrackingId()).get().getEmployeeId()).isEqualTo(7L);
+    }
+
+    //JUnit test for rejecting creates when the queue is full
+    @Test
+    @DisplayName("JUnit test for rejecting creates when the queue is full")
+    public void givenFullQueue_whenSubmit_thenThrowsTooManyRequestsException() {
+        //Given - precondition or setup
+        EmployeeIngestionQueue ingestionQueue = ingestionQueue(1);
+        ingestionQueue.submit(employee("gerardo@test.com"));
+        //When - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(TooManyRequestsException.class,
+                () -> ingestionQueue.submit(employee("ramesh@test.com")));
+        //Then - verify the output
+        Assertions.assertThat(ingestionQueue.size()).isEqualTo(1);
+        verifyNoInteractions(employeeService);
+    }
+
+    //JUnit test for rejecting creates after shutdown
+    @Test
+    @DisplayName("JUnit test for rejecting creates after shutdown")
+    public void givenShutdownQueue_whenSubmit_thenThrowsTooManyRequestsException() throws InterruptedException {
+        //Given - precondition or setup
+        EmployeeIngestionQueue ingestionQueue = ingestionQueue(10);
+        ingestionQueue.start();
+        ingestionQueue.shutdown();
+        //When - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(TooManyRequestsException.class,
+                () -> ingestionQueue.submit(employee("gerardo@test.com")));
+        //Then - verify the output
+        verifyNoInteractions(employeeService);
+    }
+
+    //JUnit test for creates accepted while the queue shuts down
+    @Test
+    @DisplayName("JUnit test for creates accepted while the queue shuts down")
+    public void givenConcurrentSubmits_whenShutdown_thenEveryAcceptedCreateIsWritten() throws Exception {
+        //Given - precondition or setup
+        EmployeeIngestionQueue ingestionQueue = ingestionQueue(100_000);
+        AtomicLong ids = new AtomicLong();
+        given(employeeService.saveEmployees(anyList())).willAnswer(invocation -> {
+            List<Employee> employees = invocation.getArgument(0);
+            employees.forEach(employee -> employee.setId(ids.incrementAndGet()));
+            return employees;
+        });
+        ingestionQueue.start();
+        List<IngestionStatus> accepted = new CopyOnWriteArrayList<>();
+        AtomicInteger emails = new AtomicInteger();
+        ExecutorService submitters = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            submitters.execute(() -> {
+                try {
+                    while (true) {
+                        accepted.add(ingestionQueue.submit(employee("employee" + emails.incrementAndGet() + "@test.com")));
+                    }
+                } catch (TooManyRequestsException e) {
+                    // shutting down
+                }
+            });
+        }
+        while (accepted.size() < 1000) {
+            Thread.onSpinWait();
+        }
+        //When - action or the behaviour that we are going to test
+        ingestionQueue.shutdown();
+        submitters.shutdown();
+        Assertions.assertThat(submitters.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        //Then - verify the output
+        Assertions.assertThat(accepted).allSatisfy(status -> Assertions.assertThat(
+                ingestionQueue.getStatus(status.getTrackingId()).get().getState()).isEqualTo(IngestionStatus.State.CREATED));
+        Assertions.assertThat(ingestionQueue.size()).isZero();
+    }
+
+    private EmployeeIngestionQueue ingestionQueue(int capacity) {
+        return new EmployeeIngestionQueue(employeeService, new SimpleMeterRegistry(), capacity, 500, Duration.ofSeconds(5));
+    }
+
+    private static Employee employee(String email) {
+        return Employee.builder()
+                .firstName("Gerardo")
+                .lastName("Aponte")
+                .email(email)
+                .build();
+    }
+}
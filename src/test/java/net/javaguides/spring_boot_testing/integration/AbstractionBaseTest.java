@@ -1,9 +1,21 @@
 package net.javaguides.spring_boot_testing.integration;
 
-import org.springframework.test.context.DynamicPropertyRegistry;
-import org.springframework.test.context.DynamicPropertySource;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextCustomizerFactories;
 import org.testcontainers.containers.MySQLContainer;
 
+import javax.sql.DataSource;
+
+/**
+ * One MySQL container for all container tests. Each subclass gets a schema and a Spring context of
+ * its own from {@link ClassSchemaContextCustomizerFactory}, so the classes run in parallel without
+ * seeing each other's rows, see junit-platform.properties.
+ */
+@ContextCustomizerFactories(ClassSchemaContextCustomizerFactory.class)
 public abstract class AbstractionBaseTest {
     static final MySQLContainer MYSQL_CONTAINER;
 
@@ -16,10 +28,23 @@ public abstract class AbstractionBaseTest {
 
     }
 
-    @DynamicPropertySource
-    public static void dynamicPropertySource(DynamicPropertyRegistry registry) {
-        registry.add("spring.datasource.url", MYSQL_CONTAINER::getJdbcUrl);
-        registry.add("spring.datasource.url", MYSQL_CONTAINER::getUsername);
-        registry.add("spring.datasource.url", MYSQL_CONTAINER::getPassword);
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectProvider<CacheManager> cacheManager;
+
+    // truncate commits, it is for tests whose writes are committed, @DataJpaTest rolls back instead.
+    // Ids are not reused after a truncate, the cached employees of the class's context are dropped anyway.
+    protected void truncateTables() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("truncate table employees");
+        jdbcTemplate.execute("truncate table employee_changes");
+        entityManagerFactory.getCache().evictAll();
+        cacheManager.ifAvailable(manager -> manager.getCacheNames()
+                .forEach(name -> manager.getCache(name).clear()));
     }
 }
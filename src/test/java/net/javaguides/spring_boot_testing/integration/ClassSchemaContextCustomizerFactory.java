@@ -0,0 +1,44 @@
+package net.javaguides.spring_boot_testing.integration;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.test.context.ContextConfigurationAttributes;
+import org.springframework.test.context.ContextCustomizer;
+import org.springframework.test.context.ContextCustomizerFactory;
+import org.springframework.test.context.MergedContextConfiguration;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Points the datasource of every container test class at a database of its own on the shared
+ * container, created on first connect and migrated by the context's Flyway. The schema is part of
+ * the context cache key, so each class gets its own context and everything running in it, request
+ * threads, @Async tasks, the ingestion writer and the change feed poller, uses that class's schema.
+ */
+class ClassSchemaContextCustomizerFactory implements ContextCustomizerFactory {
+
+    @Override
+    public ContextCustomizer createContextCustomizer(Class<?> testClass,
+                                                     List<ContextConfigurationAttributes> configAttributes) {
+        if (!AbstractionBaseTest.class.isAssignableFrom(testClass)) {
+            return null;
+        }
+        return new ClassSchemaContextCustomizer("ems_" + testClass.getSimpleName().toLowerCase(Locale.ROOT));
+    }
+
+    private record ClassSchemaContextCustomizer(String schema) implements ContextCustomizer {
+
+        @Override
+        public void customizeContext(ConfigurableApplicationContext context, MergedContextConfiguration mergedConfig) {
+            String containerUrl = AbstractionBaseTest.MYSQL_CONTAINER.getJdbcUrl();
+            String url = containerUrl.replaceFirst("/" + AbstractionBaseTest.MYSQL_CONTAINER.getDatabaseName() + "\\b", "/" + schema)
+                    + (containerUrl.contains("?") ? "&" : "?") + "createDatabaseIfNotExist=true";
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("classSchema", Map.of(
+                    "spring.datasource.url", url,
+                    "spring.datasource.username", AbstractionBaseTest.MYSQL_CONTAINER.getUsername(),
+                    "spring.datasource.password", AbstractionBaseTest.MYSQL_CONTAINER.getPassword())));
+        }
+    }
+}
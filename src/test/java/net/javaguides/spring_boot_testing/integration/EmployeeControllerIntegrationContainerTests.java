@@ -45,7 +45,7 @@ public class EmployeeControllerIntegrationContainerTests extends AbstractionBase
 
     @BeforeEach
     void setUp() {
-        employeeRepository.deleteAll();
+        truncateTables();
     }
 
     @Test
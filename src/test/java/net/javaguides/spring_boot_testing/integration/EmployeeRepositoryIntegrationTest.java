@@ -5,6 +5,7 @@ import net.javaguides.spring_boot_testing.repository.EmployeeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.ResourceLock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
@@ -16,6 +17,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ResourceLock("ems")
 public class EmployeeRepositoryIntegrationTest {
     @Autowired
     private EmployeeRepository employeeRepository;
@@ -137,10 +139,11 @@ public class EmployeeRepositoryIntegrationTest {
         String firstName = "Gerardo";
         String lastName = "Aponte";
         //When - action or the behaviour that we are going to test
-        Employee saveEmployee = employeeRepository.findByJPQL(firstName, lastName);
+        List<Employee> employees = employeeRepository.findByJPQL(firstName, lastName);
         //Then - verify the output
-        assertThat(saveEmployee.getFirstName()).isEqualTo(firstName);
-        assertThat(saveEmployee.getLastName()).isEqualTo(lastName);
+        assertThat(employees).hasSize(1);
+        assertThat(employees.get(0).getFirstName()).isEqualTo(firstName);
+        assertThat(employees.get(0).getLastName()).isEqualTo(lastName);
     }
 
 //using MySQL Database
@@ -153,10 +156,11 @@ public class EmployeeRepositoryIntegrationTest {
         String firstName = "Gerardo";
         String lastName = "Aponte";
         //When - action or the behaviour that we are going to test
-        Employee saveEmployee = employeeRepository.findByJPQLNameParams(firstName, lastName);
+        List<Employee> employees = employeeRepository.findByJPQLNameParams(firstName, lastName);
         //Then - verify the output
-        assertThat(saveEmployee.getFirstName()).isEqualTo(firstName);
-        assertThat(saveEmployee.getLastName()).isEqualTo(lastName);
+        assertThat(employees).hasSize(1);
+        assertThat(employees.get(0).getFirstName()).isEqualTo(firstName);
+        assertThat(employees.get(0).getLastName()).isEqualTo(lastName);
     }
 
     //using MySQL Database
@@ -169,10 +173,11 @@ public class EmployeeRepositoryIntegrationTest {
         String firstName = "Gerardo";
         String lastName = "Aponte";
         //When - action or the behaviour that we are going to test
-        Employee saveEmployee = employeeRepository.findByNativeSQL(firstName, lastName);
+        List<Employee> employees = employeeRepository.findByNativeSQL(firstName, lastName);
         //Then - verify the output
-        assertThat(saveEmployee.getFirstName()).isEqualTo(firstName);
-        assertThat(saveEmployee.getLastName()).isEqualTo(lastName);
+        assertThat(employees).hasSize(1);
+        assertThat(employees.get(0).getFirstName()).isEqualTo(firstName);
+        assertThat(employees.get(0).getLastName()).isEqualTo(lastName);
     }
 
     //using MySQL Database
@@ -185,9 +190,10 @@ public class EmployeeRepositoryIntegrationTest {
         String firstName = "Gerardo";
         String lastName = "Aponte";
         //When - action or the behaviour that we are going to test
-        Employee saveEmployee = employeeRepository.findByNativeSQL(firstName, lastName);
+        List<Employee> employees = employeeRepository.findByNativeSQL(firstName, lastName);
         //Then - verify the output
-        assertThat(saveEmployee.getFirstName()).isEqualTo(firstName);
-        assertThat(saveEmployee.getLastName()).isEqualTo(lastName);
+        assertThat(employees).hasSize(1);
+        assertThat(employees.get(0).getFirstName()).isEqualTo(firstName);
+        assertThat(employees.get(0).getLastName()).isEqualTo(lastName);
     }
 }
@@ -0,0 +1,70 @@
+package net.javaguides.spring_boot_testing.integration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// the MySQL migrations applied over a schema the way the former ddl-auto=update left it. No Spring
+// context and no lock, the test only touches its own ems_legacy schema on the shared container.
+public class LegacySchemaMigrationContainerTest {
+
+    private static final String SCHEMA = "ems_legacy";
+
+    @Test
+    @DisplayName("JUnit test for migrating a schema created by ddl-auto=update")
+    public void givenLegacySchema_whenMigrate_thenAddMissingColumnAndConstraint() throws SQLException {
+        //Given - precondition or setup
+        String url = AbstractionBaseTest.MYSQL_CONTAINER.getJdbcUrl();
+        String username = AbstractionBaseTest.MYSQL_CONTAINER.getUsername();
+        String password = AbstractionBaseTest.MYSQL_CONTAINER.getPassword();
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop schema if exists " + SCHEMA);
+            statement.execute("create schema " + SCHEMA);
+            statement.execute("create table " + SCHEMA + ".employees (id bigint not null auto_increment, "
+                    + "email varchar(255) not null, first_name varchar(255) not null, last_name varchar(255) not null, "
+                    + "primary key (id)) engine=InnoDB");
+            statement.execute("create index idx_employees_first_name_last_name on " + SCHEMA + ".employees (first_name, last_name)");
+            statement.execute("insert into " + SCHEMA + ".employees (id, email, first_name, last_name) values "
+                    + "(1, 'gerardo@test.com', 'Gerardo', 'Aponte'), (7, 'ariel@test.com', 'Ariel', 'Garcia')");
+            // the sequence table ddl-auto=update created for the pooled generator, starting at 1
+            statement.execute("create table " + SCHEMA + ".employees_seq (next_val bigint) engine=InnoDB");
+            statement.execute("insert into " + SCHEMA + ".employees_seq values (1)");
+        }
+        Flyway flyway = Flyway.configure()
+                .dataSource(url, username, password)
+                .schemas(SCHEMA)
+                .locations("classpath:db/migration/mysql")
+                .baselineOnMigrate(true)
+                .baselineVersion("0")
+                .load();
+        //When - action or the behaviour that we are going to test
+        flyway.migrate();
+        //Then - verify the output
+        assertThat(flyway.migrate().migrationsExecuted).isZero();
+        try (Connection connection = DriverManager.getConnection(url, username, password);
+             Statement statement = connection.createStatement()) {
+            assertThat(count(statement, "select count(*) from information_schema.columns where table_schema = '"
+                    + SCHEMA + "' and table_name = 'employees' and column_name = 'version'")).isEqualTo(1);
+            assertThat(count(statement, "select count(*) from information_schema.table_constraints where table_schema = '"
+                    + SCHEMA + "' and table_name = 'employees' and constraint_name = 'uk_employees_email'")).isEqualTo(1);
+            assertThat(count(statement, "select next_val from " + SCHEMA + ".employees_seq")).isEqualTo(8);
+            assertThat(count(statement, "select count(*) from " + SCHEMA + ".employees where version = 0")).isEqualTo(2);
+        }
+    }
+
+    private static long count(Statement statement, String sql) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package net.javaguides.spring_boot_testing.perf;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "employees.perf.seed.employees=500",
+        "employees.perf.load.enabled=false",
+        "employees.perf.load.concurrency=2",
+        "employees.perf.load.warmup=0s",
+        "employees.perf.load.duration=1s"})
+@ActiveProfiles("perf")
+public class PerfLoadGeneratorTest {
+
+    @Autowired
+    private PerfLoadGenerator perfLoadGenerator;
+
+    @Autowired
+    private PerfDataSeeder perfDataSeeder;
+
+    @LocalServerPort
+    private int port;
+
+    //JUnit test for a perf run against the seeded embedded database
+    @Test
+    @DisplayName("JUnit test for a perf run against the seeded embedded database")
+    public void givenSeededDatabase_whenRun_thenReportEveryOperation() {
+        //Given - precondition or setup
+        URI baseUri = URI.create("http://localhost:" + port);
+        //When - action or the behaviour that we are going to test
+        PerfReport report = perfLoadGenerator.run(baseUri);
+        //Then - verify the output
+        Assertions.assertThat(perfDataSeeder.getLastId() - perfDataSeeder.getFirstId()).isEqualTo(499);
+        Assertions.assertThat(report.errors()).isZero();
+        Assertions.assertThat(report.operations()).extracting(PerfReport.Operation::name)
+                .containsExactlyElementsOf(PerfLoadGenerator.OPERATIONS);
+        Assertions.assertThat(report.operations()).allSatisfy(operation -> {
+            Assertions.assertThat(operation.requests()).isPositive();
+            Assertions.assertThat(operation.p50()).isPositive().isLessThanOrEqualTo(operation.p99());
+            Assertions.assertThat(operation.p99()).isLessThanOrEqualTo(operation.max());
+        });
+    }
+}
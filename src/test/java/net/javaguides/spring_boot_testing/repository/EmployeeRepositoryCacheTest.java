@@ -0,0 +1,131 @@
+package net.javaguides.spring_boot_testing.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.javaguides.spring_boot_testing.config.HibernateCacheConfig;
+import net.javaguides.spring_boot_testing.model.Employee;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// caches are only populated on commit, so every repository call runs in its own transaction here
+@DataJpaTest
+@Import(HibernateCacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EmployeeRepositoryCacheTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        employee = employeeRepository.save(Employee.builder()
+                .firstName("Gerardo")
+                .lastName("Aponte")
+                .email("aponte@test.com")
+                .build());
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        employeeRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("JUnit test for find employee by id from the second-level cache")
+    public void givenLoadedEmployee_whenFindById_thenHitSecondLevelCache() {
+        //Given - precondition or setup
+        employeeRepository.findById(employee.getId());
+        //When - action or the behaviour that we are going to test
+        Employee cachedEmployee = employeeRepository.findById(employee.getId()).get();
+        //Then - verify the output
+        assertThat(cachedEmployee.getEmail()).isEqualTo("aponte@test.com");
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfig.EMPLOYEE_REGION).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for find employee by email from the query cache")
+    public void givenCachedQuery_whenFindByEmail_thenHitQueryCache() {
+        //Given - precondition or setup
+        employeeRepository.findByEmail("aponte@test.com");
+        //When - action or the behaviour that we are going to test
+        Employee cachedEmployee = employeeRepository.findByEmail("aponte@test.com").get();
+        //Then - verify the output
+        assertThat(cachedEmployee.getId()).isEqualTo(employee.getId());
+        assertThat(statistics.getQueryRegionStatistics(HibernateCacheConfig.EMPLOYEE_QUERY_REGION).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for query cache invalidation on update")
+    public void givenCachedQuery_whenUpdateEmployee_thenFindByEmailSeesUpdate() {
+        //Given - precondition or setup
+        employeeRepository.findByJPQL("Gerardo", "Aponte");
+        employeeRepository.findByNativeSQL("Gerardo", "Aponte");
+        employeeRepository.findById(employee.getId());
+        //When - action or the behaviour that we are going to test
+        employeeRepository.updateIfVersionMatches(employee.getId(), employee.getVersion(), "Ariel", "Garcia", "ariel@test.com");
+        //Then - verify the output
+        assertThat(employeeRepository.findByEmail("aponte@test.com")).isEmpty();
+        assertThat(employeeRepository.findByJPQL("Gerardo", "Aponte")).isEmpty();
+        assertThat(employeeRepository.findByNativeSQL("Gerardo", "Aponte")).isEmpty();
+        assertThat(employeeRepository.findById(employee.getId()).get().getEmail()).isEqualTo("ariel@test.com");
+        assertThat(statistics.getQueryCacheHitCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("JUnit test for an update only evicting the written employee")
+    public void givenTwoCachedEmployees_whenUpdateOne_thenOtherStaysCached() {
+        //Given - precondition or setup
+        Employee other = employeeRepository.save(Employee.builder()
+                .firstName("Ramesh")
+                .lastName("Fadatare")
+                .email("ramesh@test.com")
+                .build());
+        employeeRepository.findById(employee.getId());
+        employeeRepository.findById(other.getId());
+        statistics.clear();
+        //When - action or the behaviour that we are going to test
+        employeeRepository.updateIfVersionMatches(employee.getId(), employee.getVersion(), "Ariel", "Garcia", "ariel@test.com");
+        employeeRepository.findById(other.getId());
+        //Then - verify the output
+        assertThat(statistics.getDomainDataRegionStatistics(HibernateCacheConfig.EMPLOYEE_REGION).getHitCount()).isEqualTo(1);
+        assertThat(employeeRepository.findById(employee.getId()).get().getEmail()).isEqualTo("ariel@test.com");
+    }
+
+    @Test
+    @DisplayName("JUnit test for query cache invalidation on insert")
+    public void givenCachedQuery_whenSaveEmployee_thenFindByJPQLSeesInsert() {
+        //Given - precondition or setup
+        employeeRepository.findByJPQLNameParams("Gerardo", "Aponte");
+        //When - action or the behaviour that we are going to test
+        employeeRepository.save(Employee.builder()
+                .firstName("Gerardo")
+                .lastName("Aponte")
+                .email("gerardo@test.com")
+                .build());
+        //Then - verify the output
+        assertThat(employeeRepository.findByJPQLNameParams("Gerardo", "Aponte")).hasSize(2);
+        assertThat(employeeRepository.findByNativeSQLNameParams("Gerardo", "Aponte")).hasSize(2);
+    }
+}
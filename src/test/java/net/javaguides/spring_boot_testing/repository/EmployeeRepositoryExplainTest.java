@@ -0,0 +1,108 @@
+package net.javaguides.spring_boot_testing.repository;
+
+import net.javaguides.spring_boot_testing.model.Employee;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// every filtered statement the repository sends must be answered from an index, checked with H2 EXPLAIN
+// against the H2 twin migrations. It says nothing about MySQL plans, EmployeeRepositoryContainerTest
+// only checks that the MySQL migrations create the same indexes.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "net.javaguides.spring_boot_testing.repository.EmployeeRepositoryExplainTest$RecordingStatementInspector")
+public class EmployeeRepositoryExplainTest {
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @DisplayName("JUnit test for repository queries using an index")
+    public void givenRepositoryQueries_whenExplain_thenNoFullTableScan() throws SQLException {
+        //Given - precondition or setup
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            employees.add(Employee.builder().firstName("First" + i).lastName("Last" + i).email("explain" + i + "@test.com").build());
+        }
+        employeeRepository.saveAllAndFlush(employees);
+        entityManager.clear();
+        RecordingStatementInspector.STATEMENTS.clear();
+        //When - action or the behaviour that we are going to test
+        employeeRepository.findById(employees.get(0).getId());
+        employeeRepository.existsById(employees.get(0).getId());
+        employeeRepository.findByEmail("explain1@test.com");
+        employeeRepository.findExistingEmails(List.of("explain1@test.com", "explain2@test.com"));
+        employeeRepository.findByIdGreaterThanOrderByIdAsc(employees.get(50).getId(), Limit.of(10));
+        employeeRepository.findByJPQL("First1", "Last1");
+        employeeRepository.findByJPQLNameParams("First1", "Last1");
+        employeeRepository.findByNativeSQL("First1", "Last1");
+        employeeRepository.findByNativeSQLNameParams("First1", "Last1");
+        employeeRepository.updateIfVersionMatches(employees.get(1).getId(), 0L, "First1", "Last1", "explain1@test.com");
+        employeeRepository.patchEmployee(employees.get(2).getId(), Employee.builder().lastName("Patched").build());
+        employeeRepository.findFieldsById(employees.get(3).getId(), List.of("id", "email"));
+        employeeRepository.findVersionById(employees.get(4).getId());
+        employeeRepository.findVersionsByIdGreaterThanOrderByIdAsc(employees.get(50).getId(), Limit.of(10));
+        employeeRepository.findFieldsByIdGreaterThan(employees.get(50).getId(), 10, List.of("id", "email"));
+        //Then - verify the output
+        Map<String, String> plans = new LinkedHashMap<>();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        for (String sql : RecordingStatementInspector.STATEMENTS) {
+            // unfiltered reads such as streamAll are full scans by design
+            if (sql.toLowerCase().contains(" where ")) {
+                plans.put(sql, explain(connection, sql));
+            }
+        }
+        assertThat(plans).isNotEmpty();
+        assertThat(plans.values()).noneMatch(plan -> plan.toLowerCase().contains("tablescan"));
+    }
+
+    private static String explain(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement explain = connection.prepareStatement("explain " + sql)) {
+            int parameters = explain.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                explain.setString(i, "1");
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = explain.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1));
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    public static class RecordingStatementInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
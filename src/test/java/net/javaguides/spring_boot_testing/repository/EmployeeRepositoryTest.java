@@ -5,8 +5,12 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.hibernate.Session;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -15,6 +19,9 @@ public class EmployeeRepositoryTest {
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Employee employee;
 
     @BeforeEach
@@ -63,6 +70,28 @@ public class EmployeeRepositoryTest {
         assertThat(employeesList.size()).isEqualTo(2);
     }
 
+    @Test
+    @DisplayName("JUnit test for keyset page of employees after an id")
+    public void givenEmployeeList_whenFindByIdGreaterThan_thenReturnNextPage() {
+        //Given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("Ariel")
+                .lastName("Garcia")
+                .email("ariel@test.com")
+                .build();
+        Employee employee3 = Employee.builder()
+                .firstName("agua")
+                .lastName("bottton")
+                .email("peluche@test.com")
+                .build();
+        employeeRepository.saveAll(List.of(employee, employee2, employee3));
+        //When - action or the behaviour that we are going to test
+        List<Employee> employeesList = employeeRepository.findByIdGreaterThanOrderByIdAsc(employee.getId(), Limit.of(1));
+        //Then - verify the output
+        assertThat(employeesList).hasSize(1);
+        assertThat(employeesList.get(0).getId()).isEqualTo(employee2.getId());
+    }
+
     // JUNIt test for get employee by ID operation
     @Test
     @DisplayName(" JUNIt test for get employee by ID")
@@ -105,6 +134,92 @@ public class EmployeeRepositoryTest {
         assertThat(saveEmployee.getEmail()).isEqualTo("gaponte@test.com");
     }
 
+    @Test
+    @DisplayName("JUnit test for conditional update employee operation")
+    public void givenEmployeeObject_whenUpdateIfVersionMatches_thenBumpVersionOnce() {
+        //Given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        //When - action or the behaviour that we are going to test
+        int updated = employeeRepository.updateIfVersionMatches(employee.getId(), 0L,
+                "Gerardito", "Aponte", "gaponte@test.com");
+        int staleUpdated = employeeRepository.updateIfVersionMatches(employee.getId(), 0L,
+                "Gerardo", "Aponte", "aponte@test.com");
+        //Then - verify the output
+        assertThat(updated).isEqualTo(1);
+        assertThat(staleUpdated).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("JUnit test for patch employee operation")
+    public void givenEmailOnly_whenPatchEmployee_thenUpdateOnlyEmail() {
+        //Given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        Employee changes = Employee.builder()
+                .email("gaponte@test.com")
+                .build();
+        //When - action or the behaviour that we are going to test
+        int updated = employeeRepository.patchEmployee(employee.getId(), changes);
+        Employee patchedEmployee = employeeRepository.findByEmail("gaponte@test.com").get();
+        //Then - verify the output
+        assertThat(updated).isEqualTo(1);
+        assertThat(patchedEmployee.getFirstName()).isEqualTo("Gerardo");
+        assertThat(patchedEmployee.getLastName()).isEqualTo("Aponte");
+    }
+
+    @Test
+    @DisplayName("JUnit test for reading the current row after a patch")
+    public void givenManagedEmployee_whenPatchEmployee_thenFindCurrentByIdReturnPatchedRow() {
+        //Given - precondition or setup
+        employeeRepository.saveAndFlush(employee);
+        //When - action or the behaviour that we are going to test
+        employeeRepository.patchEmployee(employee.getId(), Employee.builder().lastName("Perez").build());
+        Employee currentEmployee = employeeRepository.findCurrentById(employee.getId()).get();
+        //Then - verify the output
+        assertThat(currentEmployee.getLastName()).isEqualTo("Perez");
+        assertThat(currentEmployee.getEmail()).isEqualTo("aponte@test.com");
+        assertThat(currentEmployee.getVersion()).isEqualTo(employee.getVersion() + 1);
+    }
+
+    @Test
+    @DisplayName("JUnit test for projected keyset page")
+    public void givenEmployees_whenFindFieldsByIdGreaterThan_thenReturnOnlyRequestedColumns() {
+        //Given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("Ariel")
+                .lastName("Garcia")
+                .email("ariel@test.com")
+                .build();
+        employeeRepository.saveAll(List.of(employee, employee2));
+        entityManager.flush();
+        entityManager.clear();
+        //When - action or the behaviour that we are going to test
+        List<Map<String, Object>> employees = employeeRepository.findFieldsByIdGreaterThan(employee.getId(), 10, List.of("id", "email"));
+        Optional<Map<String, Object>> byId = employeeRepository.findFieldsById(employee.getId(), List.of("id", "firstName"));
+        //Then - verify the output
+        assertThat(employees).containsExactly(Map.of("id", employee2.getId(), "email", "ariel@test.com"));
+        assertThat(byId).contains(Map.of("id", employee.getId(), "firstName", "Gerardo"));
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("JUnit test for version only lookups")
+    public void givenEmployees_whenFindVersions_thenReturnIdAndVersion() {
+        //Given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("Ariel")
+                .lastName("Garcia")
+                .email("ariel@test.com")
+                .build();
+        employeeRepository.saveAllAndFlush(List.of(employee, employee2));
+        employeeRepository.updateIfVersionMatches(employee2.getId(), 0L, "Ariel", "Garcia", "ariel@test.com");
+        //When - action or the behaviour that we are going to test
+        Optional<EmployeeVersion> version = employeeRepository.findVersionById(employee.getId());
+        List<EmployeeVersion> versions = employeeRepository.findVersionsByIdGreaterThanOrderByIdAsc(0L, Limit.of(10));
+        //Then - verify the output
+        assertThat(version).contains(new EmployeeVersion(employee.getId(), 0L));
+        assertThat(versions).containsExactly(new EmployeeVersion(employee.getId(), 0L), new EmployeeVersion(employee2.getId(), 1L));
+    }
+
     @Test
     @DisplayName("JUnit test for delete employee operation")
     public void givenEmployeeObject_whenDelete_theRemoveEmployee() {
@@ -120,6 +235,30 @@ public class EmployeeRepositoryTest {
         assertThat(employeeOptional).isEmpty();
     }
 
+    @Test
+    @DisplayName("JUnit test for delete employees by ids operation")
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturnDeletedCount() {
+        //Given - precondition or setup
+        Employee employee2 = Employee.builder()
+                .firstName("Ariel")
+                .lastName("Garcia")
+                .email("ariel@test.com")
+                .build();
+        employeeRepository.save(employee);
+        employeeRepository.save(employee2);
+        entityManager.flush();
+        entityManager.clear();
+        //When - action or the behaviour that we are going to test
+        List<Long> existingIds = employeeRepository.lockExistingIds(List.of(employee.getId(), employee2.getId(), 999L));
+        int deleted = employeeRepository.deleteEmployees(List.of(employee.getId(), employee2.getId(), 999L));
+        int deletedAgain = employeeRepository.deleteEmployee(employee.getId());
+        //Then - verify the output
+        assertThat(existingIds).containsExactlyInAnyOrder(employee.getId(), employee2.getId());
+        assertThat(deleted).isEqualTo(2);
+        assertThat(deletedAgain).isZero();
+        assertThat(employeeRepository.count()).isZero();
+    }
+
     @Test
     @DisplayName("JUnit test for custom query using JPQL with index")
     public void givenFirstNameAndLastName_whenFindByJPQL_thenReturnEmployeeObject() {
@@ -129,10 +268,29 @@ public class EmployeeRepositoryTest {
         String firstName = "Gerardo";
         String lastName = "Aponte";
         //When - action or the behaviour that we are going to test
-        Employee saveEmployee = employeeRepository.findByJPQL(firstName, lastName);
+        List<Employee> employees = employeeRepository.findByJPQL(firstName, lastName);
+        //Then - verify the output
+        assertThat(employees).hasSize(1);
+        assertThat(employees.get(0).getFirstName()).isEqualTo(firstName);
+        assertThat(employees.get(0).getLastName()).isEqualTo(lastName);
+    }
+
+    @Test
+    @DisplayName("JUnit test for custom query using JPQL with duplicated names")
+    public void givenDuplicatedNames_whenFindByJPQL_thenReturnAllEmployees() {
+        //Given - precondition or setup
+        employeeRepository.save(employee);
+        employeeRepository.save(Employee.builder()
+                .firstName("Gerardo")
+                .lastName("Aponte")
+                .email("gerardo.aponte@test.com")
+                .build());
+        //When - action or the behaviour that we are going to test
+        List<Employee> employees = employeeRepository.findByJPQL("Gerardo", "Aponte");
+        List<Employee> nativeEmployees = employeeRepository.findByNativeSQLNameParams("Gerardo", "Aponte");
         //Then - verify the output
-        assertThat(saveEmployee.getFirstName()).isEqualTo(firstName);
-        assertThat(saveEmployee.getLastName()).isEqualTo(lastName);
+        assertThat(employees).hasSize(2);
+        assertThat(nativeEmployees).hasSize(2);
     }
 
     @Test
@@ -144,10 +302,11 @@ public class EmployeeRepositoryTest {
         String firstName = "Gerardo";
         String lastName = "Aponte";
         //When - action or the behaviour that we are going to test
-        Employee saveEmployee = employeeRepository.findByJPQLNameParams(firstName, lastName);
+        List<Employee> employees = employeeRepository.findByJPQLNameParams(firstName, lastName);
         //Then - verify the output
-        assertThat(saveEmployee.getFirstName()).isEqualTo(firstName);
-        assertThat(saveEmployee.getLastName()).isEqualTo(lastName);
+        assertThat(employees).hasSize(1);
+        assertThat(employees.get(0).getFirstName()).isEqualTo(firstName);
+        assertThat(employees.get(0).getLastName()).isEqualTo(lastName);
     }
 
     @Test
@@ -159,10 +318,11 @@ public class EmployeeRepositoryTest {
         String firstName = "Gerardo";
         String lastName = "Aponte";
         //When - action or the behaviour that we are going to test
-        Employee saveEmployee = employeeRepository.findByNativeSQL(firstName, lastName);
+        List<Employee> employees = employeeRepository.findByNativeSQL(firstName, lastName);
         //Then - verify the output
-        assertThat(saveEmployee.getFirstName()).isEqualTo(firstName);
-        assertThat(saveEmployee.getLastName()).isEqualTo(lastName);
+        assertThat(employees).hasSize(1);
+        assertThat(employees.get(0).getFirstName()).isEqualTo(firstName);
+        assertThat(employees.get(0).getLastName()).isEqualTo(lastName);
     }
 
     @Test
@@ -174,9 +334,10 @@ public class EmployeeRepositoryTest {
         String firstName = "Gerardo";
         String lastName = "Aponte";
         //When - action or the behaviour that we are going to test
-        Employee saveEmployee = employeeRepository.findByNativeSQL(firstName, lastName);
+        List<Employee> employees = employeeRepository.findByNativeSQL(firstName, lastName);
         //Then - verify the output
-        assertThat(saveEmployee.getFirstName()).isEqualTo(firstName);
-        assertThat(saveEmployee.getLastName()).isEqualTo(lastName);
+        assertThat(employees).hasSize(1);
+        assertThat(employees.get(0).getFirstName()).isEqualTo(firstName);
+        assertThat(employees.get(0).getLastName()).isEqualTo(lastName);
     }
 }
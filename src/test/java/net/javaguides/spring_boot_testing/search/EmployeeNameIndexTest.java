@@ -0,0 +1,117 @@
+package net.javaguides.spring_boot_testing.search;
+
+import net.javaguides.spring_boot_testing.event.EmployeeChangedEvent;
+import net.javaguides.spring_boot_testing.model.Employee;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class EmployeeNameIndexTest {
+
+    private EmployeeNameIndex employeeNameIndex;
+
+    @BeforeEach
+    void setUp() {
+        employeeNameIndex = new EmployeeNameIndex();
+        employeeNameIndex.put(employee(1L, "Gerardo", "Aponte"));
+        employeeNameIndex.put(employee(2L, "Gerald", "Garcia"));
+        employeeNameIndex.put(employee(3L, "Ariel", "García"));
+        employeeNameIndex.put(employee(4L, "Ramesh", "Fadatare"));
+    }
+
+    //JUnit test for prefix search ranking
+    @Test
+    @DisplayName("JUnit test for prefix search ranking")
+    public void givenIndexedNames_whenSearchByPrefix_thenReturnShorterNamesFirst() {
+        //Given - precondition or setup
+        //When - action or the behaviour that we are going to test
+        List<Employee> employees = employeeNameIndex.search("GER", 10);
+        //Then - verify the output
+        Assertions.assertThat(employees).extracting(Employee::getId).containsExactly(2L, 1L);
+    }
+
+    //JUnit test for full name and accent insensitive search
+    @Test
+    @DisplayName("JUnit test for full name and accent insensitive search")
+    public void givenIndexedNames_whenSearchByFullName_thenIgnoreCaseAndAccents() {
+        //Given - precondition or setup
+        //When - action or the behaviour that we are going to test
+        List<Employee> byFullName = employeeNameIndex.search("gerardo ap", 10);
+        List<Employee> byLastName = employeeNameIndex.search("garcia", 10);
+        //Then - verify the output
+        Assertions.assertThat(byFullName.get(0).getId()).isEqualTo(1L);
+        Assertions.assertThat(byLastName).extracting(Employee::getId).containsExactly(3L, 2L);
+    }
+
+    //JUnit test for fuzzy search with a typo
+    @Test
+    @DisplayName("JUnit test for fuzzy search with a typo")
+    public void givenTypo_whenSearch_thenReturnFuzzyMatch() {
+        //Given - precondition or setup
+        //When - action or the behaviour that we are going to test
+        List<Employee> employees = employeeNameIndex.search("Fadatere", 10);
+        //Then - verify the output
+        Assertions.assertThat(employees).extracting(Employee::getId).containsExactly(4L);
+    }
+
+    //JUnit test for search result limit
+    @Test
+    @DisplayName("JUnit test for search result limit")
+    public void givenLimit_whenSearch_thenReturnAtMostLimit() {
+        //Given - precondition or setup
+        //When - action or the behaviour that we are going to test
+        List<Employee> employees = employeeNameIndex.search("g", 1);
+        //Then - verify the output
+        Assertions.assertThat(employees).hasSize(1);
+    }
+
+    //JUnit test for keeping the index in sync with employee changes
+    @Test
+    @DisplayName("JUnit test for keeping the index in sync with employee changes")
+    public void givenChangedEvents_whenSearch_thenReflectChanges() {
+        //Given - precondition or setup
+        employeeNameIndex.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.UPDATED, 1L, Employee.builder().lastName("Perez").build()));
+        employeeNameIndex.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.DELETED, 2L, null));
+        //When - action or the behaviour that we are going to test
+        List<Employee> byOldName = employeeNameIndex.search("aponte", 10);
+        List<Employee> byNewName = employeeNameIndex.search("perez", 10);
+        List<Employee> deleted = employeeNameIndex.search("gerald", 10);
+        //Then - verify the output
+        Assertions.assertThat(byOldName).isEmpty();
+        Assertions.assertThat(byNewName).extracting(Employee::getFirstName).containsExactly("Gerardo");
+        Assertions.assertThat(deleted).extracting(Employee::getId).containsExactly(1L);
+        Assertions.assertThat(employeeNameIndex.size()).isEqualTo(3);
+    }
+
+    //JUnit test for changes committed during the bulk load
+    @Test
+    @DisplayName("JUnit test for changes committed during the bulk load")
+    public void givenChangesDuringLoad_whenLoad_thenReplayChangesAfterLoadedRows() {
+        //Given - precondition or setup
+        EmployeeNameIndex loadedIndex = new EmployeeNameIndex();
+        //When - action or the behaviour that we are going to test
+        loadedIndex.load(consumer -> {
+            // rows 1 and 2 were read before the delete and the update below committed
+            loadedIndex.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.DELETED, 1L, null));
+            loadedIndex.onEmployeeChanged(new EmployeeChangedEvent(EmployeeChangedEvent.Type.UPDATED, 2L, Employee.builder().lastName("Perez").build()));
+            consumer.accept(employee(1L, "Gerardo", "Aponte"));
+            consumer.accept(employee(2L, "Gerald", "Garcia"));
+        });
+        //Then - verify the output
+        Assertions.assertThat(loadedIndex.search("aponte", 10)).isEmpty();
+        Assertions.assertThat(loadedIndex.search("perez", 10)).extracting(Employee::getId).containsExactly(2L);
+        Assertions.assertThat(loadedIndex.size()).isEqualTo(1);
+    }
+
+    private static Employee employee(long id, String firstName, String lastName) {
+        return Employee.builder()
+                .id(id)
+                .firstName(firstName)
+                .lastName(lastName)
+                .email(firstName.toLowerCase() + "@test.com")
+                .build();
+    }
+}
@@ -0,0 +1,126 @@
+package net.javaguides.spring_boot_testing.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import net.javaguides.spring_boot_testing.config.CacheConfig;
+import net.javaguides.spring_boot_testing.model.Employee;
+import net.javaguides.spring_boot_testing.repository.EmployeeRepository;
+import net.javaguides.spring_boot_testing.search.EmployeeNameIndex;
+import net.javaguides.spring_boot_testing.services.EmployeeService;
+import net.javaguides.spring_boot_testing.services.impl.EmployeeServiceImpl;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+
+import java.util.Optional;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(classes = {EmployeeServiceImpl.class, CacheConfig.class, SimpleMeterRegistry.class,
+        EmployeeNameIndex.class})
+@ImportAutoConfiguration(CacheAutoConfiguration.class)
+public class EmployeeServiceCacheTest {
+
+    @MockBean
+    private EmployeeRepository employeeRepository;
+
+    @MockBean
+    private EntityManager entityManager;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Employee employee;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).clear();
+        employee = Employee.builder()
+                .id(1L)
+                .firstName("Gerardo")
+                .lastName("Aponte")
+                .email("aponte@test.com")
+                .build();
+    }
+
+    //JUnit test for cached get Employee by ID
+    @Test
+    @DisplayName("JUnit test for cached get Employee by ID")
+    public void givenCachedEmployee_whenGetEmployeeByIdTwice_thenHitRepositoryOnce() {
+        //Given - precondition or setup
+        given(employeeRepository.findById(employee.getId())).willReturn(Optional.of(employee));
+        //When - action or the behaviour that we are going to test
+        employeeService.getEmployeeById(employee.getId());
+        Employee cachedEmployee = employeeService.getEmployeeById(employee.getId()).get();
+        //Then - verify the output
+        Assertions.assertThat(cachedEmployee.getEmail()).isEqualTo(employee.getEmail());
+        verify(employeeRepository, times(1)).findById(employee.getId());
+    }
+
+    @Test
+    @DisplayName("JUnit test for get Employee by ID after delete")
+    public void givenCachedEmployee_whenDeleteEmployee_thenEvictCachedEmployee() {
+        //Given - precondition or setup
+        given(employeeRepository.findById(employee.getId())).willReturn(Optional.of(employee));
+        given(employeeRepository.deleteEmployee(employee.getId())).willReturn(1);
+        employeeService.getEmployeeById(employee.getId());
+        //When - action or the behaviour that we are going to test
+        employeeService.deleteEmployee(employee.getId());
+        given(employeeRepository.findById(employee.getId())).willReturn(Optional.empty());
+        //Then - verify the output
+        Assertions.assertThat(employeeService.getEmployeeById(employee.getId())).isEmpty();
+        verify(employeeRepository, times(2)).findById(employee.getId());
+    }
+
+    @Test
+    @DisplayName("JUnit test for get Employee by ID does not cache missing employees")
+    public void givenMissingEmployee_whenSaveEmployee_thenGetEmployeeByIdReturnSavedEmployee() {
+        //Given - precondition or setup
+        given(employeeRepository.findById(employee.getId())).willReturn(Optional.empty());
+        employeeService.getEmployeeById(employee.getId());
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+        //When - action or the behaviour that we are going to test
+        employeeService.saveEmployee(employee);
+        //Then - verify the output
+        Assertions.assertThat(employeeService.getEmployeeById(employee.getId())).contains(employee);
+        verify(employeeRepository, times(1)).findById(employee.getId());
+    }
+
+    @Test
+    @DisplayName("JUnit test for get Employee by ID racing an update")
+    public void givenUpdateCommittedDuringLoad_whenGetEmployeeById_thenDoNotCacheStaleEmployee() throws Exception {
+        //Given - precondition or setup
+        Employee updated = Employee.builder()
+                .id(1L)
+                .firstName("Ariel")
+                .lastName("Garcia")
+                .email("garcia@test.com")
+                .build();
+        given(employeeRepository.updateIfVersionMatches(1L, 0L, "Ariel", "Garcia", "garcia@test.com")).willReturn(1);
+        given(employeeRepository.findById(employee.getId())).willAnswer(invocation -> {
+            // the row was read, the update commits and evicts before the read-through put
+            Thread writer = new Thread(() -> employeeService.updateEmployee(updated));
+            writer.start();
+            writer.join();
+            return Optional.of(employee);
+        });
+        //When - action or the behaviour that we are going to test
+        Employee staleEmployee = employeeService.getEmployeeById(employee.getId()).get();
+        //Then - verify the output
+        Assertions.assertThat(staleEmployee.getEmail()).isEqualTo("aponte@test.com");
+        Assertions.assertThat(cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE).get(employee.getId())).isNull();
+    }
+}
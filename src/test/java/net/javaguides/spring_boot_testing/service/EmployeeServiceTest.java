@@ -1,24 +1,44 @@
 package net.javaguides.spring_boot_testing.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import net.javaguides.spring_boot_testing.event.EmployeeChangedEvent;
+import net.javaguides.spring_boot_testing.exception.InvalidRequestException;
+import net.javaguides.spring_boot_testing.exception.ResourceConflictException;
 import net.javaguides.spring_boot_testing.exception.ResourceNotFoundException;
 import net.javaguides.spring_boot_testing.model.Employee;
 import net.javaguides.spring_boot_testing.repository.EmployeeRepository;
+import net.javaguides.spring_boot_testing.search.EmployeeNameIndex;
+import net.javaguides.spring_boot_testing.services.EmployeeService;
 import net.javaguides.spring_boot_testing.services.impl.EmployeeServiceImpl;
 import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.*;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @ExtendWith(MockitoExtension.class)
 public class EmployeeServiceTest {
@@ -26,6 +46,18 @@ public class EmployeeServiceTest {
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EmployeeNameIndex employeeNameIndex;
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -50,9 +82,7 @@ public class EmployeeServiceTest {
     public void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeObject() {
         //Given - precondition or setup
 
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.empty());
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
         //When - action or the behaviour that we are going to test
         Employee savedEmployee = employeeService.saveEmployee(employee);
         //Then - verify the output
@@ -61,6 +91,7 @@ public class EmployeeServiceTest {
         Assertions.assertThat(savedEmployee.getFirstName()).isEqualTo(employee.getFirstName());
         Assertions.assertThat(savedEmployee.getLastName()).isEqualTo(employee.getLastName());
         Assertions.assertThat(savedEmployee.getEmail()).isEqualTo(employee.getEmail());
+        verify(employeeRepository, never()).findByEmail(anyString());
         System.out.println(employeeService);
         System.out.println(employeeRepository);
     }
@@ -70,14 +101,47 @@ public class EmployeeServiceTest {
     public void givenExisteEmail_whenSaveEmployee_thenThrowException() {
         //Given - precondition or setup
 
-        given(employeeRepository.findByEmail(employee.getEmail()))
-                .willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(integrityViolation("Duplicate entry 'aponte@test.com' for key 'employees.uk_employees_email'",
+                        "23000", 1062, "employees.uk_employees_email"));
 
         //When - action or the behaviour that we are going to test
-        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceConflictException.class, () -> {
             employeeService.saveEmployee(employee);
         });
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).findByEmail(anyString());
+        Assertions.assertThat(meterRegistry.counter("employee.duplicate.email.rejections").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Junit Test for SaveEmployee method with a null column")
+    public void givenNullColumn_whenSaveEmployee_thenRethrowAsIs() {
+        //Given - precondition or setup
+        employee.setLastName(null);
+        given(employeeRepository.saveAndFlush(employee))
+                .willThrow(integrityViolation("Column 'last_name' cannot be null", "23000", 1048, null));
+
+        //When - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(DataIntegrityViolationException.class, () -> {
+            employeeService.saveEmployee(employee);
+        });
+        //Then - verify the output
+        Assertions.assertThat(meterRegistry.counter("employee.duplicate.email.rejections").count()).isEqualTo(0.0);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("JUnit test for update Employee that violates another constraint")
+    public void givenTooLongEmail_whenUpdatedEmployee_thenRethrowAsIs() {
+        //Given - precondition or setup
+        given(employeeRepository.updateIfVersionMatches(1L, 0L, "Gerardo", "Aponte", "aponte@test.com"))
+                .willThrow(integrityViolation("Value too long for column \"EMAIL\"", "22001", 22001, null));
+        //When - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(DataIntegrityViolationException.class, () -> {
+            employeeService.updateEmployee(employee);
+        });
+        //Then - verify the output
+        Assertions.assertThat(meterRegistry.counter("employee.duplicate.email.rejections").count()).isEqualTo(0.0);
     }
 
     //JUnit test for getAllEmployees method
@@ -91,7 +155,8 @@ public class EmployeeServiceTest {
                 .email("garcia@test.com")
                 .build();
         //Given - precondition or setup
-        given(employeeRepository.findAll()).willReturn(List.of(employee, employee1));
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(EmployeeService.MAX_PAGE_SIZE)))
+                .willReturn(List.of(employee, employee1));
         //When - action or the behaviour that we are going to test
         List<Employee> employeeList = employeeService.getAllEmployees();
         //Then - verify the output
@@ -110,7 +175,8 @@ public class EmployeeServiceTest {
                 .email("garcia@test.com")
                 .build();
         //Given - precondition or setup
-        given(employeeRepository.findAll()).willReturn(Collections.emptyList());
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(EmployeeService.MAX_PAGE_SIZE)))
+                .willReturn(Collections.emptyList());
         //When - action or the behaviour that we are going to test
         List<Employee> employeeList = employeeService.getAllEmployees();
         //Then - verify the output
@@ -118,6 +184,40 @@ public class EmployeeServiceTest {
         Assertions.assertThat(employeeList.size()).isLessThan(1);
     }
 
+    //JUnit test for getEmployeesAfter method
+    @Test
+    @DisplayName("JUnit test for getEmployeesAfter method caps the page size")
+    public void givenLimitAboveMax_whenGetEmployeesAfter_thenCapPageSize() {
+        //Given - precondition or setup
+        given(employeeRepository.findByIdGreaterThanOrderByIdAsc(1L, Limit.of(EmployeeService.MAX_PAGE_SIZE)))
+                .willReturn(List.of(employee));
+        //When - action or the behaviour that we are going to test
+        List<Employee> employeeList = employeeService.getEmployeesAfter(1L, Integer.MAX_VALUE);
+        //Then - verify the output
+        Assertions.assertThat(employeeList).hasSize(1);
+    }
+
+    //JUnit test for exportEmployees method
+    @Test
+    @DisplayName("JUnit test for exportEmployees method")
+    public void givenEmployeesStream_whenExportEmployees_thenConsumeAndDetachEach() {
+        //Given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .id(2L)
+                .firstName("Ariel")
+                .lastName("Garcia")
+                .email("garcia@test.com")
+                .build();
+        given(employeeRepository.streamAll()).willReturn(Stream.of(employee, employee1));
+        List<Employee> exported = new ArrayList<>();
+        //When - action or the behaviour that we are going to test
+        employeeService.exportEmployees(exported::add);
+        //Then - verify the output
+        Assertions.assertThat(exported).containsExactly(employee, employee1);
+        verify(entityManager).detach(employee);
+        verify(entityManager).detach(employee1);
+    }
+
     //JUnit test for  get Employee by ID
     @Test
     @DisplayName("JUnit test for  get Employee by ID")
@@ -137,10 +237,11 @@ public class EmployeeServiceTest {
     @DisplayName("JUnit test for  get Employee by ID")
     public void givenEmployeeID_whenUpdatedEmployeeByID_thenReturnEmployeeObject() {
         //Given - precondition or setup
-        given(employeeRepository.save(employee)).willReturn(employee);
         employee.setFirstName("Ariel");
         employee.setLastName("Garcia");
         employee.setEmail("garcia@test.com");
+        given(employeeRepository.updateIfVersionMatches(1L, 0L, "Ariel", "Garcia", "garcia@test.com"))
+                .willReturn(1);
         //When - action or the behaviour that we are going to test
         Employee updatedEmployee = employeeService.updateEmployee(employee);
         //Then - verify the output
@@ -148,6 +249,87 @@ public class EmployeeServiceTest {
         Assertions.assertThat(updatedEmployee.getFirstName()).isEqualTo("Ariel");
         Assertions.assertThat(updatedEmployee.getLastName()).isEqualTo("Garcia");
         Assertions.assertThat(updatedEmployee.getEmail()).isEqualTo("garcia@test.com");
+        Assertions.assertThat(updatedEmployee.getVersion()).isEqualTo(1L);
+        verify(employeeRepository, never()).save(any(Employee.class));
+    }
+
+    @Test
+    @DisplayName("JUnit test for update Employee with a stale version")
+    public void givenStaleVersion_whenUpdatedEmployee_thenThrowConflict() {
+        //Given - precondition or setup
+        given(employeeRepository.updateIfVersionMatches(1L, 0L, "Gerardo", "Aponte", "aponte@test.com"))
+                .willReturn(0);
+        given(employeeRepository.existsById(1L)).willReturn(true);
+        //When - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceConflictException.class, () -> {
+            employeeService.updateEmployee(employee);
+        });
+    }
+
+    @Test
+    @DisplayName("JUnit test for update Employee that does not exist")
+    public void givenMissingEmployee_whenUpdatedEmployee_thenThrowNotFound() {
+        //Given - precondition or setup
+        given(employeeRepository.updateIfVersionMatches(1L, 0L, "Gerardo", "Aponte", "aponte@test.com"))
+                .willReturn(0);
+        given(employeeRepository.existsById(1L)).willReturn(false);
+        //When - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            employeeService.updateEmployee(employee);
+        });
+        Assertions.assertThat(meterRegistry.counter("employee.not.found", "operation", "updateEmployee").count())
+                .isEqualTo(1.0);
+    }
+
+    //JUnit test for patchEmployee method
+    @Test
+    @DisplayName("JUnit test for patchEmployee method")
+    public void givenEmailOnly_whenPatchEmployee_thenUpdateSuppliedColumns() {
+        //Given - precondition or setup
+        Employee changes = Employee.builder()
+                .email("garcia@test.com")
+                .build();
+        Employee patched = Employee.builder()
+                .id(1L)
+                .firstName("Gerardo")
+                .lastName("Aponte")
+                .email("garcia@test.com")
+                .version(1)
+                .build();
+        given(employeeRepository.patchEmployee(1L, changes)).willReturn(1);
+        given(employeeRepository.findCurrentById(1L)).willReturn(Optional.of(patched));
+        //When - action or the behaviour that we are going to test
+        employeeService.patchEmployee(1L, changes);
+        //Then - verify the output
+        verify(employeeRepository, times(1)).patchEmployee(1L, changes);
+        verify(employeeRepository, never()).findById(anyLong());
+        verify(eventPublisher).publishEvent(argThat((EmployeeChangedEvent event) ->
+                event.getType() == EmployeeChangedEvent.Type.UPDATED && event.getEmployee() == patched));
+    }
+
+    @Test
+    @DisplayName("JUnit test for patchEmployee method on a missing employee")
+    public void givenMissingEmployee_whenPatchEmployee_thenThrowNotFound() {
+        //Given - precondition or setup
+        Employee changes = Employee.builder()
+                .email("garcia@test.com")
+                .build();
+        given(employeeRepository.patchEmployee(1L, changes)).willReturn(0);
+        //When - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+            employeeService.patchEmployee(1L, changes);
+        });
+    }
+
+    @Test
+    @DisplayName("JUnit test for patchEmployee method with an empty body")
+    public void givenNoChanges_whenPatchEmployee_thenSkipUpdate() {
+        //Given - precondition or setup
+        given(employeeRepository.existsById(1L)).willReturn(true);
+        //When - action or the behaviour that we are going to test
+        employeeService.patchEmployee(1L, new Employee());
+        //Then - verify the output
+        verify(employeeRepository, never()).patchEmployee(anyLong(), any(Employee.class));
     }
 
     //JUnit test for deleteEmployee method
@@ -155,11 +337,178 @@ public class EmployeeServiceTest {
     @DisplayName("JUnit test for deleteEmployee method")
     public void givenEmployeeID_whenDeleteEmployee_thenReturnNothing() {
         //Given - precondition or setup
-        willDoNothing().given(employeeRepository).deleteById(employee.getId());
+        given(employeeRepository.deleteEmployee(employee.getId())).willReturn(1);
         //When - action or the behaviour that we are going to test
         employeeService.deleteEmployee(employee.getId());
         //Then - verify the output
-        verify(employeeRepository, times(1)).deleteById(employee.getId());
+        verify(employeeRepository, times(1)).deleteEmployee(employee.getId());
+        verify(employeeRepository, never()).findById(anyLong());
+        verify(eventPublisher).publishEvent(argThat((EmployeeChangedEvent event) ->
+                event.getId() == employee.getId() && event.isDeleted()));
+    }
+
+    //JUnit test for deleteEmployee method which throws exception
+    @Test
+    @DisplayName("JUnit test for deleteEmployee method which throws exception")
+    public void givenMissingEmployeeID_whenDeleteEmployee_thenThrowsResourceNotFoundException() {
+        //Given - precondition or setup
+        given(employeeRepository.deleteEmployee(employee.getId())).willReturn(0);
+        //When - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceNotFoundException.class,
+                () -> employeeService.deleteEmployee(employee.getId()));
+        //Then - verify the output
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    //JUnit test for deleteEmployees method
+    @Test
+    @DisplayName("JUnit test for deleteEmployees method")
+    public void givenListOfEmployeeIDs_whenDeleteEmployees_thenDeleteInChunks() {
+        //Given - precondition or setup
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 2500; id++) {
+            ids.add(id);
+        }
+        ids.add(1L);
+        given(employeeRepository.lockExistingIds(anyList()))
+                .willAnswer(invocation -> invocation.<List<Long>>getArgument(0));
+        given(employeeRepository.deleteEmployees(anyList()))
+                .willAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+        //When - action or the behaviour that we are going to test
+        int deleted = employeeService.deleteEmployees(ids);
+        //Then - verify the output
+        Assertions.assertThat(deleted).isEqualTo(2500);
+        verify(employeeRepository, times(3)).deleteEmployees(anyList());
+        verify(employeeRepository).deleteEmployees(argThat(chunk -> chunk.size() == 500 && chunk.contains(2500L)));
+        verify(eventPublisher, times(2500)).publishEvent(any(EmployeeChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("JUnit test for deleteEmployees method with missing ids")
+    public void givenExistingAndMissingIDs_whenDeleteEmployees_thenPublishOnlyDeletedOnes() {
+        //Given - precondition or setup
+        given(employeeRepository.lockExistingIds(List.of(1L, 2L, 3L, 4L))).willReturn(List.of(1L, 3L));
+        given(employeeRepository.deleteEmployees(List.of(1L, 3L))).willReturn(2);
+        //When - action or the behaviour that we are going to test
+        int deleted = employeeService.deleteEmployees(List.of(1L, 2L, 3L, 4L, 2L));
+        //Then - verify the output
+        Assertions.assertThat(deleted).isEqualTo(2);
+        verify(eventPublisher).publishEvent(argThat((EmployeeChangedEvent event) -> event.getId() == 1L && event.isDeleted()));
+        verify(eventPublisher).publishEvent(argThat((EmployeeChangedEvent event) -> event.getId() == 3L && event.isDeleted()));
+        verify(eventPublisher, times(2)).publishEvent(any(EmployeeChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("JUnit test for deleteEmployees method when no id exists")
+    public void givenOnlyMissingIDs_whenDeleteEmployees_thenSkipDeleteAndEvents() {
+        //Given - precondition or setup
+        given(employeeRepository.lockExistingIds(List.of(7L, 8L))).willReturn(List.of());
+        //When - action or the behaviour that we are going to test
+        int deleted = employeeService.deleteEmployees(List.of(7L, 8L));
+        //Then - verify the output
+        Assertions.assertThat(deleted).isZero();
+        verify(employeeRepository, never()).deleteEmployees(anyList());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    //JUnit test for getEmployeeFieldsAfter method
+    @Test
+    @DisplayName("JUnit test for getEmployeeFieldsAfter method")
+    public void givenFields_whenGetEmployeeFieldsAfter_thenSelectIdAndRequestedColumns() {
+        //Given - precondition or setup
+        given(employeeRepository.findFieldsByIdGreaterThan(eq(10L), eq(2),
+                argThat(fields -> List.copyOf(fields).equals(List.of("id", "email")))))
+                .willReturn(List.of(Map.of("id", 11L, "email", "gerardo@test.com")));
+        //When - action or the behaviour that we are going to test
+        List<Map<String, Object>> employees = employeeService.getEmployeeFieldsAfter(10L, 2, List.of("email"));
+        //Then - verify the output
+        Assertions.assertThat(employees).hasSize(1);
+        verify(employeeRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+    }
+
+    //JUnit test for getEmployeeFieldsById method with an unknown field
+    @Test
+    @DisplayName("JUnit test for getEmployeeFieldsById method with an unknown field")
+    public void givenUnknownField_whenGetEmployeeFieldsById_thenThrowException() {
+        //Given - precondition or setup
+        //When - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(InvalidRequestException.class, () -> {
+            employeeService.getEmployeeFieldsById(1L, List.of("email", "salary"));
+        });
+        //Then - verify the output
+        verifyNoInteractions(employeeRepository);
+    }
+
+    //JUnit test for searchEmployees method
+    @Test
+    @DisplayName("JUnit test for searchEmployees method")
+    public void givenQuery_whenSearchEmployees_thenUseNameIndex() {
+        //Given - precondition or setup
+        given(employeeNameIndex.search("ger", 10)).willReturn(List.of(employee));
+        //When - action or the behaviour that we are going to test
+        List<Employee> employees = employeeService.searchEmployees("ger", 10);
+        //Then - verify the output
+        Assertions.assertThat(employees).containsExactly(employee);
+        verifyNoInteractions(employeeRepository);
+    }
+
+    //JUnit test for saveEmployees method
+    @Test
+    @DisplayName("JUnit test for saveEmployees method")
+    public void givenEmployeesList_whenSaveEmployees_thenReturnSavedList() {
+        //Given - precondition or setup
+        Employee employee1 = Employee.builder()
+                .firstName("Ariel")
+                .lastName("Garcia")
+                .email("garcia@test.com")
+                .build();
+        List<Employee> employees = List.of(employee, employee1);
+        given(employeeRepository.findExistingEmails(anyCollection())).willReturn(Collections.emptyList());
+        given(employeeRepository.saveAllAndFlush(employees)).willReturn(employees);
+        //When - action or the behaviour that we are going to test
+        List<Employee> savedEmployees = employeeService.saveEmployees(employees);
+        //Then - verify the output
+        Assertions.assertThat(savedEmployees).hasSize(2);
+        verify(employeeRepository, times(1)).findExistingEmails(anyCollection());
+        verify(employeeRepository, never()).findByEmail(anyString());
+    }
+
+    @Test
+    @DisplayName("JUnit test for saveEmployees method with an existing email")
+    public void givenExistingEmailInBatch_whenSaveEmployees_thenThrowException() {
+        //Given - precondition or setup
+        given(employeeRepository.findExistingEmails(anyCollection())).willReturn(List.of(employee.getEmail()));
+        //When - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceConflictException.class, () -> {
+            employeeService.saveEmployees(List.of(employee));
+        });
+        //Then - verify the output
+        verify(employeeRepository, never()).saveAllAndFlush(anyList());
+    }
+
+    @Test
+    @DisplayName("JUnit test for saveEmployees method with a duplicated email in the batch")
+    public void givenDuplicatedEmailInBatch_whenSaveEmployees_thenThrowException() {
+        //Given - precondition or setup
+        Employee duplicated = Employee.builder()
+                .firstName("Ariel")
+                .lastName("Garcia")
+                .email(employee.getEmail())
+                .build();
+        //When - action or the behaviour that we are going to test
+        org.junit.jupiter.api.Assertions.assertThrows(ResourceConflictException.class, () -> {
+            employeeService.saveEmployees(List.of(employee, duplicated));
+        });
+        //Then - verify the output
+        verify(employeeRepository, never()).findExistingEmails(anyCollection());
+        verify(employeeRepository, never()).saveAllAndFlush(anyList());
+    }
 
+    // what Spring's translation of a Hibernate constraint violation looks like
+    private static DataIntegrityViolationException integrityViolation(String message, String sqlState, int errorCode,
+                                                                      String constraintName) {
+        SQLException sqlException = new SQLException(message, sqlState, errorCode);
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException(message, sqlException, constraintName));
     }
 }